@@ -0,0 +1,90 @@
+package simulator;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//--------------------------------------------------------------------------
+//
+// Whole simulation runs through the SimulationEngine, with statistics only
+// (no logging), per algorithm, teller count, arrival chance and horizon.
+// An operation is one run; the events of the runs are reported as the
+// secondary "events" rate, so the cost per event is time / events.
+//
+// Transaction times load the tellers to about 90% at chance 75. Larger
+// pools and horizons, e.g. to check that the cost per event stays flat, or
+// Round Robin near saturation, are a -p away:
+//
+//      gradle jmh -Pjmh='EngineBenchmark -p numTellers=10000 -p simulationTime=10000000'
+//
+// With -prof gc, gc.alloc.rate.norm is the allocation per run; it stays
+// flat as the horizon doubles when the run allocates nothing per event.
+//
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class EngineBenchmark
+{
+    @Param({ "Greedy", "Round Robin", "Least Work Left" })
+    public String algorithm;
+
+    @Param({ "10", "100", "1000" })
+    public int numTellers;
+
+    @Param({ "25", "75" })
+    public int chancesOfArrival;
+
+    @Param({ "100000", "1000000" })
+    public long simulationTime;
+
+    private int maxTransactionTime;
+
+    // events per second, next to the runs per second of the benchmark
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Events
+    {
+        public long events;
+
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            events = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        maxTransactionTime = Math.max(1, Math.min(500, (int) (2 * 0.9 * numTellers / 0.75)));
+    }
+
+    @Benchmark
+    public long run(Events counter)
+    {
+        SchedulingPolicy policy = TellerFlowOptimizer.createPolicy(algorithm);
+        ArrivalSource arrivals = new RandomArrivalSource(new Random(42), chancesOfArrival, maxTransactionTime);
+        SimulationEngine engine = new SimulationEngine(numTellers, numTellers, simulationTime, policy, arrivals);
+        SimulationStatistics stats = new SimulationStatistics(numTellers);
+        engine.addObserver(stats);
+        engine.run();
+        counter.events += engine.getNumEvents();
+        return stats.getNumServed();
+    }
+}
@@ -0,0 +1,89 @@
+package simulator;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+//--------------------------------------------------------------------------
+//
+// Reading customers from disk: a data file of RECORDS "arrival transaction"
+// lines through FileArrivalSource, and the same customers recorded to and
+// replayed from a TraceFile. An operation is one customer record; both
+// files are written once per fork into the temp directory.
+//
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class InputBenchmark
+{
+    private static final int RECORDS = 1_000_000;
+
+    private File dataFile;
+    private File traceFile;
+    private TraceFile trace;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException
+    {
+        dataFile = File.createTempFile("customers", ".txt");
+        Random random = new Random(9);
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(dataFile))) {
+            for (int i = 0; i < RECORDS; i++) {
+                out.write(random.nextInt(1000) + " " + random.nextInt(1000) + "\n");
+            }
+        }
+        traceFile = File.createTempFile("customers", ".trace");
+        trace = TraceFile.record(new FileArrivalSource(dataFile, 100, 500), RECORDS, traceFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        dataFile.delete();
+        traceFile.delete();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long dataFile() throws IOException
+    {
+        return sumTransactionTimes(new FileArrivalSource(dataFile, 100, 500));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long traceFile()
+    {
+        return sumTransactionTimes(trace.replay());
+    }
+
+    private static long sumTransactionTimes(ArrivalSource source)
+    {
+        long sum = 0;
+        for (long time = source.nextArrivalTime(0, RECORDS); time < RECORDS;
+                time = source.nextArrivalTime(time + 1, RECORDS)) {
+            sum += source.getTransactionTime();
+        }
+        return sum;
+    }
+}
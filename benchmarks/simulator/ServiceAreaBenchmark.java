@@ -0,0 +1,132 @@
+package simulator;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//--------------------------------------------------------------------------
+//
+// The queues of the ServiceArea and the dispatch state of the tellers, each
+// at a steady working size: an operation is one insert and one remove, or
+// one lookup.
+//
+//      customerQueue       waiting customers, about queueLength of them
+//      freeTellerQueue     ring of free tellers
+//      busyTellerHeap      busy tellers by end of their transaction
+//      nextFreeBitset      next free teller in circular order through the
+//                          busy bitset of a TellerPool, as Round Robin does
+//      nextFreeScan        the same by asking Teller objects one by one, the
+//                          scan Round Robin made before the TellerPool
+//
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ServiceAreaBenchmark
+{
+    private static final int LOOKUPS = 1 << 16;   // random start positions, cycled
+
+    @Param({ "1000", "10000", "100000" })
+    public int numTellers;
+
+    @Param({ "0.5", "0.9", "0.99" })
+    public double busyFraction;
+
+    @Param({ "1000" })
+    public int queueLength;
+
+    private CustomerQueue customerQ;
+    private ServiceArea freeTellers;
+    private IndexedMinHeap busyTellers;
+    private int[] transactionTimes;
+    private long time;
+
+    private TellerPool pool;
+    private Teller[] tellers;
+    private int[] starts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        Random random = new Random(7);
+        customerQ = new CustomerQueue();
+        for (int i = 0; i < queueLength; i++) customerQ.add(i, 1 + random.nextInt(500), i);
+
+        freeTellers = new ServiceArea(numTellers, 0, 1);
+
+        transactionTimes = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) transactionTimes[i] = 1 + random.nextInt(500);
+        busyTellers = new IndexedMinHeap(numTellers);
+        for (int i = 0; i < numTellers; i++) busyTellers.insert(i, transactionTimes[i & (LOOKUPS - 1)]);
+
+        pool = new TellerPool(numTellers);
+        tellers = new Teller[numTellers];
+        for (int i = 0; i < numTellers; i++) {
+            tellers[i] = new Teller(i + 1);
+            if (random.nextDouble() < busyFraction) {
+                tellers[i].freeToBusy(i, 10, 0, 0);
+                pool.setBusy(i, 0, 10);
+            }
+        }
+        starts = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) starts[i] = random.nextInt(numTellers);
+    }
+
+    @Benchmark
+    public int customerQueue()
+    {
+        int i = next++ & (LOOKUPS - 1);
+        customerQ.add(i, transactionTimes[i], i);
+        int transactionTime = customerQ.peekTransactionTime();
+        customerQ.remove();
+        return transactionTime;
+    }
+
+    @Benchmark
+    public int freeTellerQueue()
+    {
+        Teller teller = freeTellers.removeFreeTellerQ();
+        freeTellers.insertFreeTellerQ(teller);
+        return teller.getTellerID();
+    }
+
+    @Benchmark
+    public long busyTellerHeap()
+    {
+        time = busyTellers.peekKey();
+        busyTellers.insert(busyTellers.poll(), time + transactionTimes[next++ & (LOOKUPS - 1)]);
+        return time;
+    }
+
+    @Benchmark
+    public int nextFreeBitset()
+    {
+        return pool.nextFree(starts[next++ & (LOOKUPS - 1)]);
+    }
+
+    @Benchmark
+    public int nextFreeScan()
+    {
+        int from = starts[next++ & (LOOKUPS - 1)];
+        for (int i = 0; i < tellers.length; i++) {
+            int index = (from + i) % tellers.length;
+            if (!tellers[index].isBusy()) return index;
+        }
+        return -1;
+    }
+}
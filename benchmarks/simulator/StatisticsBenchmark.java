@@ -0,0 +1,75 @@
+package simulator;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//--------------------------------------------------------------------------
+//
+// Bookkeeping per event and per replication.
+//
+//      simulationStatistics    what SimulationStatistics does for one
+//                              customer: arrival, service and the time
+//                              advanced until the next event
+//      replicationSummary      adding one value to the RunningStats of a
+//                              metric, as ReplicationRunner does per
+//                              replication
+//
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class StatisticsBenchmark
+{
+    private int[] waits;
+    private SimulationStatistics stats;
+    private RunningStats summary;
+    private long time;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        Random random = new Random(5);
+        waits = new int[4096];
+        for (int i = 0; i < waits.length; i++) waits[i] = random.nextInt(2000);
+    }
+
+    @Setup(Level.Iteration)
+    public void reset()
+    {
+        stats = new SimulationStatistics(100);
+        summary = new RunningStats();
+        time = 0;
+    }
+
+    @Benchmark
+    public SimulationStatistics simulationStatistics()
+    {
+        int wait = waits[(int) time & 4095];
+        stats.customerArrives(time, time, 10);
+        stats.customerServed(time, time, 1, 10, wait);
+        stats.timeAdvanced(time, time + 1, wait & 63, 50);
+        time++;
+        return stats;
+    }
+
+    @Benchmark
+    public double replicationSummary()
+    {
+        summary.add((time++ * 31) % 1009);
+        return summary.getStdDev();
+    }
+}
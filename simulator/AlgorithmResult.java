@@ -3,12 +3,15 @@ package simulator;
 public class AlgorithmResult {
     private String algorithmName;
     private double avgWaitTime;
-    private int maxWaitTime;
+    private long maxWaitTime;
+    private long p50WaitTime;
+    private long p95WaitTime;
+    private long p99WaitTime;
     private double avgTellerUtilization;
     private double queueEfficiency;
-    private int totalCustomers;
-    private int customersServed;
-    private int customersGoneAway;
+    private long totalCustomers;
+    private long customersServed;
+    private long customersGoneAway;
     private double avgServiceTime;
     private int peakQueueLength;
     private double avgQueueLength;
@@ -21,18 +24,24 @@ public class AlgorithmResult {
     public String getAlgorithmName() { return algorithmName; }
     public double getAvgWaitTime() { return avgWaitTime; }
     public void setAvgWaitTime(double avgWaitTime) { this.avgWaitTime = avgWaitTime; }
-    public int getMaxWaitTime() { return maxWaitTime; }
-    public void setMaxWaitTime(int maxWaitTime) { this.maxWaitTime = maxWaitTime; }
+    public long getMaxWaitTime() { return maxWaitTime; }
+    public void setMaxWaitTime(long maxWaitTime) { this.maxWaitTime = maxWaitTime; }
+    public long getP50WaitTime() { return p50WaitTime; }
+    public void setP50WaitTime(long p50WaitTime) { this.p50WaitTime = p50WaitTime; }
+    public long getP95WaitTime() { return p95WaitTime; }
+    public void setP95WaitTime(long p95WaitTime) { this.p95WaitTime = p95WaitTime; }
+    public long getP99WaitTime() { return p99WaitTime; }
+    public void setP99WaitTime(long p99WaitTime) { this.p99WaitTime = p99WaitTime; }
     public double getAvgTellerUtilization() { return avgTellerUtilization; }
     public void setAvgTellerUtilization(double avgTellerUtilization) { this.avgTellerUtilization = avgTellerUtilization; }
     public double getQueueEfficiency() { return queueEfficiency; }
     public void setQueueEfficiency(double queueEfficiency) { this.queueEfficiency = queueEfficiency; }
-    public int getTotalCustomers() { return totalCustomers; }
-    public void setTotalCustomers(int totalCustomers) { this.totalCustomers = totalCustomers; }
-    public int getCustomersServed() { return customersServed; }
-    public void setCustomersServed(int customersServed) { this.customersServed = customersServed; }
-    public int getCustomersGoneAway() { return customersGoneAway; }
-    public void setCustomersGoneAway(int customersGoneAway) { this.customersGoneAway = customersGoneAway; }
+    public long getTotalCustomers() { return totalCustomers; }
+    public void setTotalCustomers(long totalCustomers) { this.totalCustomers = totalCustomers; }
+    public long getCustomersServed() { return customersServed; }
+    public void setCustomersServed(long customersServed) { this.customersServed = customersServed; }
+    public long getCustomersGoneAway() { return customersGoneAway; }
+    public void setCustomersGoneAway(long customersGoneAway) { this.customersGoneAway = customersGoneAway; }
     public double getAvgServiceTime() { return avgServiceTime; }
     public void setAvgServiceTime(double avgServiceTime) { this.avgServiceTime = avgServiceTime; }
     public int getPeakQueueLength() { return peakQueueLength; }
@@ -0,0 +1,227 @@
+package simulator;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+//--------------------------------------------------------------------------
+//
+// Arrival chances that vary over the day: a lunch peak, a Monday-morning
+// surge, a branch that is closed at night.
+//
+// A profile is a step function of time. Segment i starts at startTimes[i]
+// and has chancesOfArrival[i]% per time unit until the next segment starts;
+// the first segment starts at 0. With a period, the profile repeats every
+// period time units (a day, a week), otherwise the last segment lasts to the
+// end of the run.
+//
+// A profile is defined in code or read from a profile file, one segment per
+// line, with an optional period line and # comments:
+//
+//      # a working day, one time unit a minute
+//      period 480
+//      0       30
+//      90      45      # mid-morning
+//      210     80      # lunch peak
+//      300     40
+//
+// schedule() draws the customers of a whole run at once, by thinning: the
+// candidate arrivals of the highest chance are drawn as geometric gaps, one
+// draw per candidate instead of one per time unit, and a candidate at time t
+// is kept with probability chance(t) / max chance. The arrivals are exactly
+// those of per-time-unit draws with chance(t), in a CustomerTrace of
+// primitive arrays, so the simulation loop only reads them back.
+//
+class ArrivalProfile
+{
+    private final long period;             // 0 if the profile does not repeat
+    private final long[] startTimes;
+    private final int[] chancesOfArrival;
+    private final int maxChancesOfArrival;
+
+    public ArrivalProfile(long period, long[] startTimes, int[] chancesOfArrival)
+    {
+        if (period < 0) throw new IllegalArgumentException("Negative period: " + period);
+        if (startTimes.length == 0 || startTimes.length != chancesOfArrival.length) {
+            throw new IllegalArgumentException("Need one arrival chance per segment start");
+        }
+        if (startTimes[0] != 0) throw new IllegalArgumentException("First segment must start at 0");
+        int max = 0;
+        for (int i = 0; i < startTimes.length; i++) {
+            if (i > 0 && startTimes[i] <= startTimes[i - 1]) {
+                throw new IllegalArgumentException("Segment starts must increase: " + startTimes[i]);
+            }
+            if (period > 0 && startTimes[i] >= period) {
+                throw new IllegalArgumentException("Segment start " + startTimes[i] + " is not within the period");
+            }
+            if (chancesOfArrival[i] < 0 || chancesOfArrival[i] > 100) {
+                throw new IllegalArgumentException("Chances of arrival must be 0..100: " + chancesOfArrival[i]);
+            }
+            max = Math.max(max, chancesOfArrival[i]);
+        }
+        this.period = period;
+        this.startTimes = startTimes.clone();
+        this.chancesOfArrival = chancesOfArrival.clone();
+        this.maxChancesOfArrival = max;
+    }
+
+    // the profile of the classic simulation: one chance for the whole run
+    public static ArrivalProfile constant(int chancesOfArrival)
+    {
+        return new ArrivalProfile(0, new long[] { 0 }, new int[] { chancesOfArrival });
+    }
+
+    public static ArrivalProfile read(File file) throws IOException
+    {
+        long period = 0;
+        long[] starts = new long[16];
+        int[] chances = new int[16];
+        int segments = 0, lineNumber = 0;
+        try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+            for (String line; (line = in.readLine()) != null; ) {
+                lineNumber++;
+                int comment = line.indexOf('#');
+                String[] fields = (comment < 0 ? line : line.substring(0, comment)).trim().split("\\s+");
+                if (fields[0].isEmpty()) continue;
+                try {
+                    if (fields.length != 2) throw new IllegalArgumentException("Expected two fields");
+                    if (fields[0].equals("period")) {
+                        period = Long.parseLong(fields[1]);
+                        continue;
+                    }
+                    if (segments == starts.length) {
+                        starts = Arrays.copyOf(starts, 2 * segments);
+                        chances = Arrays.copyOf(chances, 2 * segments);
+                    }
+                    starts[segments] = Long.parseLong(fields[0]);
+                    chances[segments] = Integer.parseInt(fields[1]);
+                    segments++;
+                } catch (IllegalArgumentException ex) {
+                    throw new IOException(file + ":" + lineNumber + ": " + ex.getMessage());
+                }
+            }
+        }
+        try {
+            return new ArrivalProfile(period, Arrays.copyOf(starts, segments), Arrays.copyOf(chances, segments));
+        } catch (IllegalArgumentException ex) {
+            throw new IOException(file + ": " + ex.getMessage());
+        }
+    }
+
+    // all arrivals in [0, simulationTime), transaction times 1..maxTransactionTime
+    public CustomerTrace schedule(Random random, int maxTransactionTime, long simulationTime)
+    {
+        CustomerTrace trace = new CustomerTrace();
+        if (maxChancesOfArrival == 0) return trace;
+        double logMiss = Math.log1p(-maxChancesOfArrival / 100.0);   // -infinity at 100%
+
+        int segment = 0;
+        long periodStart = 0;  // start of the current period
+        long time = -1;
+        while (true) {
+            // next candidate: a geometric gap of time units without one
+            double gap = Math.floor(Math.log(1 - random.nextDouble()) / logMiss);
+            if (gap >= simulationTime - time - 1) break;
+            time += (long) gap + 1;
+
+            // move the cursor to the segment of time
+            if (period > 0 && time - periodStart >= period) {
+                periodStart += (time - periodStart) / period * period;
+                segment = 0;
+            }
+            while (segment + 1 < startTimes.length && time - periodStart >= startTimes[segment + 1]) {
+                segment++;
+            }
+
+            int chances = chancesOfArrival[segment];
+            if (chances == maxChancesOfArrival || random.nextInt(maxChancesOfArrival) < chances) {
+                trace.add(time, random.nextInt(maxTransactionTime) + 1);
+            }
+        }
+        return trace;
+    }
+
+    // chances of arrival per time unit at time
+    public int getChancesOfArrival(long time)
+    {
+        long phase = period > 0 ? time % period : time;
+        int i = Arrays.binarySearch(startTimes, phase);
+        return chancesOfArrival[i >= 0 ? i : -i - 2];
+    }
+
+    // mean chances of arrival over [0, simulationTime)
+    public double getMeanChancesOfArrival(long simulationTime)
+    {
+        if (simulationTime <= 0) return 0;
+        long cycle = period > 0 ? period : simulationTime;
+        double perCycle = 0;   // chance-units over one cycle
+        for (int i = 0; i < startTimes.length; i++) {
+            long end = i + 1 < startTimes.length ? Math.min(startTimes[i + 1], cycle) : cycle;
+            if (end > startTimes[i]) perCycle += (double) chancesOfArrival[i] * (end - startTimes[i]);
+        }
+        if (period == 0) return perCycle / simulationTime;
+        long cycles = simulationTime / period, rest = simulationTime % period;
+        double partial = 0;
+        for (int i = 0; i < startTimes.length && startTimes[i] < rest; i++) {
+            long end = i + 1 < startTimes.length ? Math.min(startTimes[i + 1], rest) : rest;
+            partial += (double) chancesOfArrival[i] * (end - startTimes[i]);
+        }
+        return (cycles * perCycle + partial) / simulationTime;
+    }
+
+    // accessor methods
+
+    public long getPeriod()
+    {
+        return period;
+    }
+
+    public int getMaxChancesOfArrival()
+    {
+        return maxChancesOfArrival;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder s = new StringBuilder(period > 0 ? "period " + period + ":" : "profile:");
+        for (int i = 0; i < startTimes.length; i++) {
+            s.append(' ').append(startTimes[i]).append('=').append(chancesOfArrival[i]).append('%');
+        }
+        return s.toString();
+    }
+
+    public static void main(String[] args)
+    {
+        // quick check: a day with a lunch peak, per-hour arrivals against the
+        // profile, and the cost of scheduling against the per-time-unit draws
+        ArrivalProfile day = new ArrivalProfile(480, new long[] { 0, 90, 210, 300 }, new int[] { 30, 45, 80, 40 });
+        long days = 2_000;
+        CustomerTrace trace = day.schedule(new Random(1), 20, days * 480);
+        long[] perHour = new long[8];
+        for (int i = 0; i < trace.size(); i++) perHour[(int) (trace.getArrivalTime(i) % 480 / 60)]++;
+        System.out.println(day);
+        for (int h = 0; h < 8; h++) {
+            double expected = 0;
+            for (int t = 60 * h; t < 60 * (h + 1); t++) expected += day.getChancesOfArrival(t) / 100.0;
+            System.out.printf("  hour %d: %6.2f arrivals, expected %6.2f\n", h, perHour[h] / (double) days, expected);
+        }
+        System.out.printf("  mean chance %.2f%%, scheduled %.2f%%\n",
+                day.getMeanChancesOfArrival(days * 480), 100.0 * trace.size() / (days * 480));
+
+        long horizon = 50_000_000;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            CustomerTrace scheduled = constant(25).schedule(new Random(2), 500, horizon);
+            long scheduleNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            CustomerTrace perStep = CustomerTrace.record(new RandomArrivalSource(new Random(2), 25, 500), horizon);
+            long perStepNanos = System.nanoTime() - start;
+            System.out.printf("  25%% over %d units: thinning %d customers in %.0f ms, per-step draws %d in %.0f ms\n",
+                    horizon, scheduled.size(), scheduleNanos / 1e6, perStep.size(), perStepNanos / 1e6);
+        }
+    }
+}
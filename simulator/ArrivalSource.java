@@ -0,0 +1,39 @@
+package simulator;
+
+//--------------------------------------------------------------------------
+//
+// Source of customer data for a simulation run.
+//
+// The tick loop asked for (anyNewArrival, transactionTime) once per time unit.
+// The event-driven engine only needs to know when the next customer arrives,
+// so a source reads ahead over the time units without an arrival and stops at
+// the first one that has one. A source that reads one record per time unit
+// must still consume the records of the skipped time units, so the arrival
+// stream is exactly the one the tick loop would have seen.
+//
+// A source may let several customers arrive in the same time unit, a batch.
+// Sources of at most one customer per time unit keep the defaults.
+//
+interface ArrivalSource
+{
+    // Returns the first time in [fromTime, endTime) at which a new customer
+    // arrives, or endTime if nobody arrives before the end of the run.
+    long nextArrivalTime(long fromTime, long endTime);
+
+    // Transaction time of the customer found by the last nextArrivalTime(),
+    // the first of its batch.
+    int getTransactionTime();
+
+    // Number of customers arriving at the time found by the last
+    // nextArrivalTime(), at least 1.
+    default int getBatchSize()
+    {
+        return 1;
+    }
+
+    // Transaction time of customer i, 0 <= i < getBatchSize(), of that batch.
+    default int getTransactionTime(int i)
+    {
+        return getTransactionTime();
+    }
+}
@@ -0,0 +1,195 @@
+package simulator;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+//--------------------------------------------------------------------------
+//
+// Sink that writes the log on a background thread.
+//
+// println on System.out is synchronized and flushes the console for every
+// line, which makes a run that logs each event orders of magnitude slower
+// than the simulation itself. Here the simulation thread only appends lines
+// to a batch; a full batch (BATCH_CHARS) is handed over through a bounded
+// ring buffer of chunks to a flusher thread, which writes the chunks through
+// one large buffered writer and flushes the output when it has caught up.
+// A producer that gets more than RING_SIZE chunks ahead waits, so memory
+// stays bounded and no line is lost.
+//
+// flush() returns once everything logged before it has been written;
+// close() flushes and stops the flusher. A stream passed in stays open; a
+// file opened by the sink is closed.
+//
+class AsyncLogSink implements SimulationLogSink
+{
+    private static final int BATCH_CHARS = 16 * 1024;
+    private static final int RING_SIZE = 64;
+
+    private final LogLevel level;
+    private final Writer out;
+    private final OutputStream ownedStream;  // closed by close(), or null
+    private final Thread flusher;
+
+    // producer side, guarded by this
+    private final StringBuilder batch = new StringBuilder(BATCH_CHARS + 256);
+
+    // ring of chunks, guarded by ring
+    private final String[] ring = new String[RING_SIZE];
+    private int head, size;
+    private boolean writing, closed;
+    private IOException failure;
+
+    public AsyncLogSink(OutputStream out, LogLevel level)
+    {
+        this(out, level, null);
+    }
+
+    public AsyncLogSink(File file, LogLevel level) throws IOException
+    {
+        this(new FileOutputStream(file), level);
+    }
+
+    private AsyncLogSink(FileOutputStream file, LogLevel level)
+    {
+        this(file, level, file);
+    }
+
+    private AsyncLogSink(OutputStream out, LogLevel level, OutputStream ownedStream)
+    {
+        this.level = level;
+        this.ownedStream = ownedStream;
+        this.out = new BufferedWriter(new OutputStreamWriter(out), 4 * BATCH_CHARS);
+        flusher = new Thread(this::drain, "simulation-log");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public LogLevel getLevel()
+    {
+        return level;
+    }
+
+    @Override
+    public synchronized void log(LogLevel level, String line)
+    {
+        if (!isEnabled(level)) return;
+        batch.append(line).append('\n');
+        if (batch.length() >= BATCH_CHARS) publish();
+    }
+
+    @Override
+    public void flush()
+    {
+        synchronized (this) {
+            if (batch.length() > 0) publish();
+        }
+        synchronized (ring) {
+            while ((size > 0 || writing) && failure == null) {
+                awaitRing();
+            }
+            if (failure != null) throw new UncheckedIOException(failure);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        // the flusher is stopped and the file closed even if the flush fails
+        try {
+            flush();
+        } finally {
+            synchronized (ring) {
+                closed = true;
+                ring.notifyAll();
+            }
+            try {
+                flusher.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            if (ownedStream != null) {
+                try {
+                    ownedStream.close();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+        }
+    }
+
+    private void publish()
+    {
+        // hand the current batch over to the flusher, waiting for room
+        String chunk = batch.toString();
+        batch.setLength(0);
+        synchronized (ring) {
+            while (size == RING_SIZE && failure == null) {
+                awaitRing();
+            }
+            if (failure != null) throw new UncheckedIOException(failure);
+            ring[(head + size) % RING_SIZE] = chunk;
+            size++;
+            ring.notifyAll();
+        }
+    }
+
+    private void drain()
+    {
+        // flusher thread: write chunks until closed
+        while (true) {
+            String chunk;
+            synchronized (ring) {
+                while (size == 0 && !closed) {
+                    awaitRing();
+                }
+                if (size == 0) return;
+                chunk = ring[head];
+                ring[head] = null;
+                head = (head + 1) % RING_SIZE;
+                size--;
+                writing = true;
+                ring.notifyAll();
+            }
+
+            IOException error = null;
+            try {
+                out.write(chunk);
+                if (isCaughtUp()) out.flush();
+            } catch (IOException ex) {
+                error = ex;
+            }
+
+            synchronized (ring) {
+                writing = false;
+                if (error != null) failure = error;
+                ring.notifyAll();
+                if (failure != null) return;
+            }
+        }
+    }
+
+    private boolean isCaughtUp()
+    {
+        synchronized (ring) {
+            return size == 0;
+        }
+    }
+
+    private void awaitRing()
+    {
+        // called holding the ring lock
+        try {
+            ring.wait();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while logging", ex);
+        }
+    }
+}
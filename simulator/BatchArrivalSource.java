@@ -0,0 +1,66 @@
+package simulator;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Customer data generated by a Random object in batches: the number of
+// customers of a time unit is drawn from a BatchSizeDistribution, and every
+// customer of a batch gets
+//
+//      transactionTime = dataRandom.nextInt(maxTransactionTime) + 1;
+//
+// Time units without customers are skipped with one geometric draw for the
+// whole gap, so a run costs random numbers per batch, not per time unit.
+class BatchArrivalSource implements ArrivalSource
+{
+    private final Random dataRandom;
+    private final BatchSizeDistribution batchSizes;
+    private final int maxTransactionTime;
+    private final double logMiss;   // log P(nobody arrives in a time unit)
+
+    private int batchSize;
+    private int[] transactionTimes = new int[16];
+
+    public BatchArrivalSource(Random dataRandom, BatchSizeDistribution batchSizes, int maxTransactionTime)
+    {
+        this.dataRandom = dataRandom;
+        this.batchSizes = batchSizes;
+        this.maxTransactionTime = maxTransactionTime;
+        logMiss = Math.log1p(-batchSizes.getArrivalProbability());
+    }
+
+    @Override
+    public long nextArrivalTime(long fromTime, long endTime)
+    {
+        if (fromTime >= endTime || logMiss == 0) return endTime;
+        double gap = Math.floor(Math.log(1 - dataRandom.nextDouble()) / logMiss);
+        if (gap >= endTime - fromTime) return endTime;
+
+        batchSize = batchSizes.sample(dataRandom);
+        if (batchSize > transactionTimes.length) {
+            transactionTimes = Arrays.copyOf(transactionTimes, Math.max(batchSize, 2 * transactionTimes.length));
+        }
+        for (int i = 0; i < batchSize; i++) {
+            transactionTimes[i] = dataRandom.nextInt(maxTransactionTime) + 1;
+        }
+        return fromTime + (long) gap;
+    }
+
+    @Override
+    public int getTransactionTime()
+    {
+        return transactionTimes[0];
+    }
+
+    @Override
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    @Override
+    public int getTransactionTime(int i)
+    {
+        return transactionTimes[i];
+    }
+}
@@ -0,0 +1,155 @@
+package simulator;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+//--------------------------------------------------------------------------
+//
+// Distribution of the number of customers arriving in one time unit.
+//
+// The classic model lets at most one customer arrive per time unit, so a
+// busy branch needs short time units and a long simulationTime. With a
+// batch size distribution a time unit can bring any number of customers:
+// Poisson with a given mean, or empirical, from weights of 0, 1, 2, ...
+// customers, e.g. counted per minute at a real branch. A file of weights
+// has one "count weight" line per count, with # comments:
+//
+//      # customers per minute, Monday 9-10
+//      0   42
+//      1   31
+//      2   17
+//      3   10
+//
+// A BatchArrivalSource first draws whether anybody arrives at all, with
+// getArrivalProbability(), and then the size of the batch by sample(), from
+// the distribution given at least one customer. The cumulative table of
+// that conditional distribution is computed once, so a sample is one random
+// number and a binary search.
+//
+class BatchSizeDistribution
+{
+    private static final double POISSON_TAIL = 1e-12;
+    private static final double MAX_POISSON_MEAN = 700;  // e^-mean must not underflow
+
+    private final double arrivalProbability;   // P(K >= 1)
+    private final double[] cumulative;         // P(K <= k | K >= 1) at k - 1
+    private final double mean;
+
+    private BatchSizeDistribution(double[] weights)
+    {
+        double total = 0, weighted = 0;
+        for (int k = 0; k < weights.length; k++) {
+            if (!(weights[k] >= 0) || Double.isInfinite(weights[k])) {
+                throw new IllegalArgumentException("Weight of " + k + " customers must not be negative: " + weights[k]);
+            }
+            total += weights[k];
+            weighted += k * weights[k];
+        }
+        if (!(total > 0)) throw new IllegalArgumentException("Weights must not all be zero");
+        mean = weighted / total;
+        double nonEmpty = total - weights[0];
+        arrivalProbability = nonEmpty / total;
+
+        int last = weights.length - 1;
+        while (last > 0 && weights[last] == 0) last--;
+        cumulative = new double[Math.max(last, 1)];
+        double sum = 0;
+        for (int k = 1; k <= last; k++) {
+            sum += weights[k];
+            cumulative[k - 1] = sum / nonEmpty;
+        }
+        cumulative[cumulative.length - 1] = 1;   // no rounding gap at the end
+    }
+
+    // weights[k] of k customers arriving in a time unit, not normalized
+    public static BatchSizeDistribution empirical(double... weights)
+    {
+        if (weights.length == 0) throw new IllegalArgumentException("No weights");
+        return new BatchSizeDistribution(weights.clone());
+    }
+
+    public static BatchSizeDistribution poisson(double mean)
+    {
+        if (!(mean > 0) || mean > MAX_POISSON_MEAN) {
+            throw new IllegalArgumentException("Poisson mean must be in (0, " + MAX_POISSON_MEAN + "]: " + mean);
+        }
+        // the pmf up to where the tail no longer matters
+        double[] pmf = new double[16];
+        double p = Math.exp(-mean), sum = 0;
+        int k = 0;
+        while (k <= mean || 1 - sum > POISSON_TAIL) {
+            if (k == pmf.length) pmf = Arrays.copyOf(pmf, 2 * k);
+            pmf[k] = p;
+            sum += p;
+            k++;
+            p *= mean / k;
+            if (p == 0 && k > mean) break;
+        }
+        return new BatchSizeDistribution(Arrays.copyOf(pmf, k));
+    }
+
+    public static BatchSizeDistribution read(File file) throws IOException
+    {
+        double[] weights = new double[16];
+        int size = 0, lineNumber = 0;
+        try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+            for (String line; (line = in.readLine()) != null; ) {
+                lineNumber++;
+                int comment = line.indexOf('#');
+                String[] fields = (comment < 0 ? line : line.substring(0, comment)).trim().split("\\s+");
+                if (fields[0].isEmpty()) continue;
+                try {
+                    if (fields.length != 2) throw new IllegalArgumentException("Expected two fields");
+                    int count = Integer.parseInt(fields[0]);
+                    if (count < 0) throw new IllegalArgumentException("Negative count: " + count);
+                    if (count >= weights.length) weights = Arrays.copyOf(weights, Math.max(count + 1, 2 * weights.length));
+                    weights[count] += Double.parseDouble(fields[1]);
+                    size = Math.max(size, count + 1);
+                } catch (IllegalArgumentException ex) {
+                    throw new IOException(file + ":" + lineNumber + ": " + ex.getMessage());
+                }
+            }
+        }
+        try {
+            return new BatchSizeDistribution(Arrays.copyOf(weights, size));
+        } catch (IllegalArgumentException ex) {
+            throw new IOException(file + ": " + ex.getMessage());
+        }
+    }
+
+    // size of a batch, given that at least one customer arrives
+    public int sample(Random random)
+    {
+        if (cumulative.length == 1) return 1;
+        double u = random.nextDouble();
+        int i = Arrays.binarySearch(cumulative, u);
+        return (i >= 0 ? i : -i - 1) + 1;
+    }
+
+    // accessor methods
+
+    public double getArrivalProbability()
+    {
+        return arrivalProbability;
+    }
+
+    public double getMean()
+    {
+        return mean;
+    }
+
+    public int getMaxBatchSize()
+    {
+        return cumulative.length;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("batches of mean %.3f customers per time unit (at most %d)", mean, cumulative.length);
+    }
+}
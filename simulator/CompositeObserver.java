@@ -0,0 +1,70 @@
+package simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Forwards every simulation event to a list of observers, in the order they
+// were added.
+class CompositeObserver implements SimulationObserver
+{
+    private final List<SimulationObserver> observers = new ArrayList<>();
+
+    public void add(SimulationObserver observer)
+    {
+        observers.add(observer);
+    }
+
+    @Override
+    public void timeAdvanced(long fromTime, long toTime, int waitingCustomers, int busyTellers)
+    {
+        for (SimulationObserver o : observers) o.timeAdvanced(fromTime, toTime, waitingCustomers, busyTellers);
+    }
+
+    @Override
+    public void timeStep(long currentTime, int waitingCustomers, int busyTellers)
+    {
+        for (SimulationObserver o : observers) o.timeStep(currentTime, waitingCustomers, busyTellers);
+    }
+
+    @Override
+    public void noNewCustomer(long currentTime)
+    {
+        for (SimulationObserver o : observers) o.noNewCustomer(currentTime);
+    }
+
+    @Override
+    public void customerArrives(long currentTime, long customerID, int transactionTime)
+    {
+        for (SimulationObserver o : observers) o.customerArrives(currentTime, customerID, transactionTime);
+    }
+
+    @Override
+    public void customerGoesAway(long currentTime, long customerID)
+    {
+        for (SimulationObserver o : observers) o.customerGoesAway(currentTime, customerID);
+    }
+
+    @Override
+    public void customerWaits(long currentTime, long customerID)
+    {
+        for (SimulationObserver o : observers) o.customerWaits(currentTime, customerID);
+    }
+
+    @Override
+    public void customerDone(long currentTime, long customerID, int tellerID)
+    {
+        for (SimulationObserver o : observers) o.customerDone(currentTime, customerID, tellerID);
+    }
+
+    @Override
+    public void customerServed(long currentTime, long customerID, int tellerID, int transactionTime, long waitTime)
+    {
+        for (SimulationObserver o : observers) o.customerServed(currentTime, customerID, tellerID, transactionTime, waitTime);
+    }
+
+    @Override
+    public void simulationEnded(long endTime)
+    {
+        for (SimulationObserver o : observers) o.simulationEnded(endTime);
+    }
+}
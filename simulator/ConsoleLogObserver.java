@@ -0,0 +1,109 @@
+package simulator;
+
+// Logs the per-time-unit snapshot of the command line simulation: the time
+// step header and queue at LogLevel.STEP, the events at LogLevel.EVENT.
+// Attach it only when the sink has STEP enabled.
+//
+// The engine skips the time units without an event; this observer fills
+// them in from the quiet stretches of timeAdvanced, so the log still has a
+// snapshot (and "No new customer!") for every time unit, as the tick loop
+// printed it.
+class ConsoleLogObserver implements SimulationObserver
+{
+    private final SimulationLogSink log;
+    private final int numTellers;
+    private final int customerQLimit;
+    private final boolean logEvents;
+
+    // next time unit to log, and the state of the quiet stretch before it
+    private long nextTime;
+    private int quietWaiting, quietBusy;
+
+    public ConsoleLogObserver(SimulationLogSink log, int numTellers, int customerQLimit)
+    {
+        this.log = log;
+        this.numTellers = numTellers;
+        this.customerQLimit = customerQLimit;
+        this.logEvents = log.isEnabled(LogLevel.EVENT);
+    }
+
+    @Override
+    public void timeAdvanced(long fromTime, long toTime, int waitingCustomers, int busyTellers)
+    {
+        quietWaiting = waitingCustomers;
+        quietBusy = busyTellers;
+    }
+
+    @Override
+    public void timeStep(long currentTime, int waitingCustomers, int busyTellers)
+    {
+        logQuietUntil(currentTime);
+        logStep(currentTime, waitingCustomers, busyTellers);
+        nextTime = currentTime + 1;
+    }
+
+    @Override
+    public void simulationEnded(long endTime)
+    {
+        logQuietUntil(endTime);
+    }
+
+    private void logQuietUntil(long endTime)
+    {
+        for (long time = nextTime; time < endTime; time++) {
+            logStep(time, quietWaiting, quietBusy);
+            noNewCustomer(time);
+        }
+        nextTime = Math.max(nextTime, endTime);
+    }
+
+    private void logStep(long currentTime, int waitingCustomers, int busyTellers)
+    {
+        log.log(LogLevel.STEP, "---------------------------------------------------------------");
+        log.log(LogLevel.STEP, "Time  : " + (currentTime+1));
+        log.log(LogLevel.STEP, "[Time " + (currentTime+1) + "] Queue: " + waitingCustomers
+                + ", Busy Tellers: " + busyTellers + ", Free Tellers: " + (numTellers - busyTellers));
+        log.log(LogLevel.STEP, "Queue : " + waitingCustomers + "/" + customerQLimit);
+    }
+
+    @Override
+    public void noNewCustomer(long currentTime)
+    {
+        if (logEvents) log.log(LogLevel.EVENT, "\tNo new customer!");
+    }
+
+    @Override
+    public void customerArrives(long currentTime, long customerID, int transactionTime)
+    {
+        if (logEvents) log.log(LogLevel.EVENT, "\tCustomer #" + customerID
+                + " arrives with transaction time " + transactionTime + " unit(s).");
+    }
+
+    @Override
+    public void customerGoesAway(long currentTime, long customerID)
+    {
+        if (logEvents) log.log(LogLevel.EVENT, "\tCustomer queue full. Customer #" + customerID + " leaves...");
+    }
+
+    @Override
+    public void customerWaits(long currentTime, long customerID)
+    {
+        if (logEvents) log.log(LogLevel.EVENT, "\tCustomer #" + customerID + " waits in the customer queue.");
+    }
+
+    @Override
+    public void customerDone(long currentTime, long customerID, int tellerID)
+    {
+        if (logEvents) {
+            log.log(LogLevel.EVENT, "\tCustomer #" + customerID + " is done.");
+            log.log(LogLevel.EVENT, "\tTeller #" + tellerID + " is free.");
+        }
+    }
+
+    @Override
+    public void customerServed(long currentTime, long customerID, int tellerID, int transactionTime, long waitTime)
+    {
+        if (logEvents) log.log(LogLevel.EVENT, "\tCustomer #" + customerID + " gets teller #"
+                + tellerID + " for " + transactionTime + " unit(s).");
+    }
+}
@@ -2,16 +2,16 @@ package simulator;
 
 public class Customer
 {
-    private int customerID;
+    private long customerID;
     private int transactionTime;
-    private int arrivalTime;
+    private long arrivalTime;
 
     public Customer()
     {
         this(1,1,1);
     }
 
-    public Customer(int customerid, int transactionduration, int arrivaltime)
+    public Customer(long customerid, int transactionduration, long arrivaltime)
     {
         customerID = customerid;
         transactionTime = transactionduration;
@@ -23,12 +23,12 @@ public class Customer
         return transactionTime;
     }
 
-    public int getArrivalTime()
+    public long getArrivalTime()
     {
         return arrivalTime;
     }
 
-    public int getCustomerID()
+    public long getCustomerID()
     {
         return customerID;
     }
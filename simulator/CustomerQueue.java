@@ -0,0 +1,142 @@
+package simulator;
+
+import java.util.Arrays;
+
+// FIFO queue of waiting customers in a growable ring buffer.
+//
+// The queue starts small and doubles when full, so a large customer queue
+// limit costs nothing until customers actually pile up, and a queue that
+// grew once is reused without further allocation.
+//
+// A waiting customer is three primitives in parallel arrays (ID, arrival
+// time, transaction time), so the engine enqueues and serves customers
+// without creating objects. add(Customer) and poll() create or take apart
+// Customer objects for callers that want them.
+class CustomerQueue
+{
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] customerIDs;
+    private long[] arrivalTimes;
+    private int[] transactionTimes;
+    private int head;  // position of the first customer
+    private int size;
+
+    public CustomerQueue()
+    {
+        customerIDs = new long[INITIAL_CAPACITY];
+        arrivalTimes = new long[INITIAL_CAPACITY];
+        transactionTimes = new int[INITIAL_CAPACITY];
+    }
+
+    public void add(long customerID, int transactionTime, long arrivalTime)
+    {
+        if (size == customerIDs.length) grow(size + 1);
+        int tail = (head + size) & (customerIDs.length - 1);
+        customerIDs[tail] = customerID;
+        arrivalTimes[tail] = arrivalTime;
+        transactionTimes[tail] = transactionTime;
+        size++;
+    }
+
+    // add count customers arriving together, with IDs firstCustomerID,
+    // firstCustomerID + 1, ...; the queue grows at most once per batch
+    public void addAll(long firstCustomerID, int[] transactionTimes, int count, long arrivalTime)
+    {
+        if (size + count > customerIDs.length) grow(size + count);
+        int mask = customerIDs.length - 1;
+        int tail = head + size;
+        for (int i = 0; i < count; i++) {
+            int pos = (tail + i) & mask;
+            customerIDs[pos] = firstCustomerID + i;
+            arrivalTimes[pos] = arrivalTime;
+            this.transactionTimes[pos] = transactionTimes[i];
+        }
+        size += count;
+    }
+
+    public void add(Customer customer)
+    {
+        add(customer.getCustomerID(), customer.getTransactionTime(), customer.getArrivalTime());
+    }
+
+    // remove the first customer; read it with the peek methods before
+    public void remove()
+    {
+        head = (head + 1) & (customerIDs.length - 1);
+        size--;
+    }
+
+    public Customer poll()
+    {
+        // remove and return the first customer, null if empty
+        if (size == 0) return null;
+        Customer customer = peek();
+        remove();
+        return customer;
+    }
+
+    public Customer peek()
+    {
+        return size == 0 ? null : new Customer(customerIDs[head], transactionTimes[head], arrivalTimes[head]);
+    }
+
+    // fields of the first customer; the queue must not be empty
+
+    public long peekCustomerID()
+    {
+        return customerIDs[head];
+    }
+
+    public long peekArrivalTime()
+    {
+        return arrivalTimes[head];
+    }
+
+    public int peekTransactionTime()
+    {
+        return transactionTimes[head];
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    private void grow(int minCapacity)
+    {
+        // capacity stays a power of two so positions wrap with a mask
+        int length = customerIDs.length;
+        int capacity = length * 2;
+        while (capacity < minCapacity) capacity *= 2;
+        customerIDs = unwrap(customerIDs, length, new long[capacity]);
+        arrivalTimes = unwrap(arrivalTimes, length, new long[capacity]);
+        transactionTimes = unwrap(transactionTimes, length, new int[capacity]);
+        head = 0;
+    }
+
+    // copy the ring into the front of larger, first customer first
+    private <A> A unwrap(A ring, int length, A larger)
+    {
+        int firstPart = Math.min(size, length - head);
+        System.arraycopy(ring, head, larger, 0, firstPart);
+        System.arraycopy(ring, 0, larger, firstPart, size - firstPart);
+        return larger;
+    }
+
+    @Override
+    public String toString()
+    {
+        Customer[] waiting = new Customer[size];
+        for (int i = 0; i < size; i++) {
+            int pos = (head + i) & (customerIDs.length - 1);
+            waiting[i] = new Customer(customerIDs[pos], transactionTimes[pos], arrivalTimes[pos]);
+        }
+        return Arrays.toString(waiting);
+    }
+}
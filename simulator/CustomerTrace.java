@@ -0,0 +1,121 @@
+package simulator;
+
+import java.util.Arrays;
+
+//--------------------------------------------------------------------------
+//
+// Recorded customer arrivals of one simulation horizon: the arrival time and
+// transaction time of every customer, in arrival order.
+//
+// A trace is recorded once from an ArrivalSource and can then be replayed
+// any number of times, also concurrently, because every replay() has its own
+// read position. Comparison mode replays one trace into every algorithm
+// (common random numbers): all algorithms serve exactly the same customers,
+// so differences between them are caused by the algorithm and not by the
+// luck of the draw.
+//
+// Memory is two primitive arrays, 12 bytes per arriving customer, so a trace
+// holds at most about a billion customers. The customers of a batch are
+// recorded one after the other with the same arrival time and replayed as
+// one batch again.
+//
+class CustomerTrace
+{
+    private static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+
+    private long[] arrivalTimes;
+    private int[] transactionTimes;
+    private int size;
+
+    CustomerTrace()
+    {
+        arrivalTimes = new long[16];
+        transactionTimes = new int[16];
+    }
+
+    // record all arrivals of source in [0, simulationTime)
+    public static CustomerTrace record(ArrivalSource source, long simulationTime)
+    {
+        CustomerTrace trace = new CustomerTrace();
+        long time = source.nextArrivalTime(0, simulationTime);
+        while (time < simulationTime) {
+            int batchSize = source.getBatchSize();
+            for (int i = 0; i < batchSize; i++) {
+                trace.add(time, source.getTransactionTime(i));
+            }
+            time = source.nextArrivalTime(time + 1, simulationTime);
+        }
+        return trace;
+    }
+
+    // arrival times must not decrease
+    void add(long arrivalTime, int transactionTime)
+    {
+        if (size == arrivalTimes.length) {
+            if (size > MAX_SIZE / 2) throw new IllegalStateException("Customer trace too long: " + size);
+            arrivalTimes = Arrays.copyOf(arrivalTimes, size * 2);
+            transactionTimes = Arrays.copyOf(transactionTimes, size * 2);
+        }
+        arrivalTimes[size] = arrivalTime;
+        transactionTimes[size] = transactionTime;
+        size++;
+    }
+
+    // a new source that plays the recorded arrivals from the start
+    public ArrivalSource replay()
+    {
+        return new ArrivalSource()
+        {
+            private int next;            // next recorded customer
+            private int batchStart;      // first customer of the last batch
+            private int batchSize;
+
+            @Override
+            public long nextArrivalTime(long fromTime, long endTime)
+            {
+                while (next < size && arrivalTimes[next] < fromTime) next++;
+                if (next == size || arrivalTimes[next] >= endTime) return endTime;
+                long arrivalTime = arrivalTimes[next];
+                batchStart = next;
+                while (next < size && arrivalTimes[next] == arrivalTime) next++;
+                batchSize = next - batchStart;
+                return arrivalTime;
+            }
+
+            @Override
+            public int getTransactionTime()
+            {
+                return transactionTimes[batchStart];
+            }
+
+            @Override
+            public int getBatchSize()
+            {
+                return batchSize;
+            }
+
+            @Override
+            public int getTransactionTime(int i)
+            {
+                return transactionTimes[batchStart + i];
+            }
+        };
+    }
+
+    // accessor methods
+
+    public int size()
+    {
+        return size;
+    }
+
+    public long getArrivalTime(int i)
+    {
+        return arrivalTimes[i];
+    }
+
+    public int getTransactionTime(int i)
+    {
+        return transactionTimes[i];
+    }
+}
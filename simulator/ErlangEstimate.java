@@ -0,0 +1,219 @@
+package simulator;
+
+import java.util.Random;
+
+//--------------------------------------------------------------------------
+//
+// Analytic steady-state estimate of a scenario, in microseconds instead of
+// a simulation.
+//
+// The simulated bank is close to a c-server queue with a waiting room of
+// customerQLimit places: a customer who finds the queue full goes away. The
+// estimate takes the M/M/c/c+L model of it. With offered load
+// a = lambda * E[S] and rho = a / c, and B the Erlang B blocking of c
+// servers, the state probabilities relative to the all-servers-busy state
+// are B * rho^k for k waiting customers, so
+//
+//      P(go away) = B rho^L / Z        P(wait) = B (1 + ... + rho^(L-1)) / Z
+//      Lq = B (rho + 2 rho^2 + ... + L rho^L) / Z
+//      Z  = 1 + B (rho + ... + rho^L)
+//
+// which is Erlang B for L = 0 and Erlang C for an unlimited queue. The
+// geometric sums are taken in closed form, scaled by rho^-L when rho > 1, so
+// queue limits of billions cost nothing and nothing overflows. Erlang B
+// comes from its recurrence, which is stable for millions of tellers.
+//
+// The simulation is not exactly M/M/c: a customer arrives in a time unit
+// with probability chancesOfArrival% (Bernoulli arrivals, squared
+// coefficient of variation 1 - p of the interarrival time) and transaction
+// times are uniform on 1..maxTransactionTime (SCV (M-1) / (3 (M+1))).
+// Waits and queue lengths are scaled by (ca^2 + cs^2) / 2, the
+// Allen-Cunneen approximation for GI/G/c; blocking and utilization are left
+// as they are. This is good enough to rank staffing levels and to prune a
+// search, not to replace the simulation: check() compares the estimate with
+// a short simulation of the same scenario.
+//
+class ErlangEstimate
+{
+    private final int numTellers, customerQLimit;
+    private final double arrivalRate, meanServiceTime;
+    private final double offeredLoad;
+    private final double goAwayProbability, waitProbability;
+    private final double averageQueueLength, averageWaitTime, utilization;
+    private final double p95WaitTime;
+
+    public ErlangEstimate(int numTellers, int customerQLimit, int chancesOfArrival, int maxTransactionTime)
+    {
+        if (numTellers < 1) throw new IllegalArgumentException("Number of tellers must be positive: " + numTellers);
+        if (customerQLimit < 0) throw new IllegalArgumentException("Customer queue limit must not be negative: " + customerQLimit);
+        this.numTellers = numTellers;
+        this.customerQLimit = customerQLimit;
+
+        double p = chancesOfArrival / 100.0;
+        arrivalRate = p;
+        meanServiceTime = (maxTransactionTime + 1) / 2.0;
+        offeredLoad = arrivalRate * meanServiceTime;
+        double rho = offeredLoad / numTellers;
+        double variability = ((1 - p) + (maxTransactionTime - 1) / (3.0 * (maxTransactionTime + 1))) / 2;
+
+        double b = erlangB(numTellers, offeredLoad);
+        int l = customerQLimit;
+
+        // the sums of the header, all scaled by rho^-L when rho > 1
+        double one, full, waitSum, queueSum, lengthSum;   // 1, rho^L, k < L, 1 <= k <= L, k rho^k
+        if (Math.abs(rho - 1) < 1e-9) {
+            one = 1;
+            full = 1;
+            waitSum = l;
+            queueSum = l;
+            lengthSum = l * (l + 1.0) / 2;
+        } else if (rho < 1) {
+            double rhoL = Math.pow(rho, l);
+            one = 1;
+            full = rhoL;
+            waitSum = (1 - rhoL) / (1 - rho);
+            queueSum = rho * waitSum;
+            lengthSum = rho * (1 - (l + 1) * rhoL + l * rhoL * rho) / ((1 - rho) * (1 - rho));
+        } else {
+            double r = 1 / rho, rL = Math.pow(r, l);
+            one = rL;
+            full = 1;
+            queueSum = (1 - rL) / (1 - r);                                             // sum r^j, j < L
+            waitSum = r * queueSum;
+            double weighted = r * (1 - l * rL / r + (l - 1) * rL) / ((1 - r) * (1 - r)); // sum j r^j, j < L
+            lengthSum = l * queueSum - weighted;
+        }
+        double z = one + b * queueSum;
+
+        goAwayProbability = b * full / z;
+        waitProbability = b * waitSum / z;
+        double lq = b * lengthSum / z;
+
+        averageQueueLength = Math.min(l, lq * variability);
+        double served = arrivalRate * (1 - goAwayProbability);
+        averageWaitTime = served > 0 ? averageQueueLength / served : 0;
+        utilization = Math.min(1, served * meanServiceTime / numTellers);
+
+        // tail of the M/M/c wait, exp(-(c mu - lambda) t) beyond the wait
+        // probability, stretched like the mean; no wait is longer than it
+        // takes the tellers to work off a full queue
+        double drain = numTellers / meanServiceTime - served;
+        double longest = l * meanServiceTime / numTellers;
+        p95WaitTime = waitProbability <= 0.05 ? 0
+                : drain <= 0 ? longest
+                : Math.min(longest, Math.log(waitProbability / 0.05) / drain * variability);
+    }
+
+    public ErlangEstimate(Scenario scenario)
+    {
+        this(scenario.getNumTellers(), scenario.getCustomerQLimit(),
+             scenario.getChancesOfArrival(), scenario.getMaxTransactionTime());
+    }
+
+    // Erlang B blocking probability of c servers at offered load a
+    static double erlangB(int c, double a)
+    {
+        double b = 1;
+        for (int n = 1; n <= c; n++) {
+            b = a * b / (n + a * b);
+        }
+        return b;
+    }
+
+    // smallest teller count whose estimate meets both targets, at most maxTellers
+    public static int estimateMinimumTellers(Scenario scenario, double maxP95WaitTime,
+                                             double maxGoAwayPercent, int maxTellers)
+    {
+        int c = Math.max(1, (int) Math.floor(lowerBoundTellers(scenario, maxGoAwayPercent)));
+        for (; c < maxTellers; c++) {
+            ErlangEstimate e = new ErlangEstimate(scenario.withNumTellers(c));
+            if (e.getP95WaitTime() <= maxP95WaitTime && 100 * e.getGoAwayProbability() <= maxGoAwayPercent) break;
+        }
+        return c;
+    }
+
+    // Tellers needed just to keep up with the customers who stay: the served
+    // rate lambda (1 - goAway) cannot exceed c / E[S]. This holds for any
+    // model, not just the estimate, up to the start-up of a run.
+    public static double lowerBoundTellers(Scenario scenario, double maxGoAwayPercent)
+    {
+        double load = scenario.getChancesOfArrival() / 100.0 * (scenario.getMaxTransactionTime() + 1) / 2.0;
+        return load * (1 - Math.min(100, maxGoAwayPercent) / 100);
+    }
+
+    // the estimate next to the statistics of one simulation of scenario
+    public static String check(Scenario scenario, long seed)
+    {
+        long start = System.nanoTime();
+        ErlangEstimate e = new ErlangEstimate(scenario);
+        long estimateNanos = System.nanoTime() - start;
+
+        SimulationRun run = scenario.newRun(seed).call();
+        SimulationStatistics s = run.getStatistics();
+        double goAway = s.getTotalArrivals() == 0 ? 0 : 100.0 * s.getNumGoaway() / s.getTotalArrivals();
+        return String.format("%s\n  %-10s %10s %10s %10s %10s %10s\n  %-10s %10.2f %10.2f %10.2f %10.2f %10.1f   (%.1f us)\n"
+                + "  %-10s %10.2f %10.2f %10d %10.2f %10.1f",
+            scenario, "", "wait", "queue", "p95 wait", "go-away %", "util %",
+            "estimate", e.getAverageWaitTime(), e.getAverageQueueLength(), e.getP95WaitTime(),
+            100 * e.getGoAwayProbability(), 100 * e.getUtilization(), estimateNanos / 1e3,
+            "simulated", s.getAverageWaitTime(), s.getAverageQueueLength(), s.getWaitTimePercentile(95),
+            goAway, s.getAverageTellerUtilization());
+    }
+
+    // accessor methods
+
+    public int getNumTellers()
+    {
+        return numTellers;
+    }
+
+    public int getCustomerQLimit()
+    {
+        return customerQLimit;
+    }
+
+    public double getOfferedLoad()
+    {
+        return offeredLoad;
+    }
+
+    public double getGoAwayProbability()
+    {
+        return goAwayProbability;
+    }
+
+    public double getWaitProbability()
+    {
+        return waitProbability;
+    }
+
+    public double getAverageQueueLength()
+    {
+        return averageQueueLength;
+    }
+
+    public double getAverageWaitTime()
+    {
+        return averageWaitTime;
+    }
+
+    public double getP95WaitTime()
+    {
+        return p95WaitTime;
+    }
+
+    public double getUtilization()
+    {
+        return utilization;
+    }
+
+    public static void main(String[] args)
+    {
+        // quick check: estimates next to 200,000-unit simulations
+        long seed = new Random(1).nextLong();
+        for (int[] p : new int[][] { { 3, 10, 50, 10 }, { 5, 20, 60, 15 }, { 10, 50, 80, 25 },
+                                     { 10, 5, 90, 25 }, { 20, 1000, 75, 50 }, { 4, 10, 90, 20 } }) {
+            System.out.println(check(new Scenario(p[0], p[1], 200_000, p[2], p[3], "Greedy"), seed));
+        }
+    }
+}
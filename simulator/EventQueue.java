@@ -0,0 +1,140 @@
+package simulator;
+
+import java.util.Arrays;
+
+//--------------------------------------------------------------------------
+//
+// Time-ordered event queue for the next-event simulation engine.
+//
+// Each event is packed into one long so the queue is a plain binary min-heap
+// over a long[] and never allocates per event:
+//
+//      | time (37 bits) | type (2 bits) | payload (24 bits) |
+//
+// Ordering by the packed value orders events by time first and, within the
+// same time unit, by type. The type constants below are numbered in the order
+// the events of one time unit must be handled (end of run, arrival, then
+// completions), which is the order of the steps in the original tick loop.
+// Completions at the same time are handled in ascending payload order.
+//
+class EventQueue
+{
+    // event types, in the order they are handled within one time unit
+    static final int END = 0;
+    static final int ARRIVAL = 1;
+    static final int COMPLETION = 2;
+
+    private static final int PAYLOAD_BITS = 24;
+    private static final int TYPE_BITS = 2;
+    private static final long PAYLOAD_MASK = (1L << PAYLOAD_BITS) - 1;
+    private static final long TYPE_MASK = (1L << TYPE_BITS) - 1;
+
+    static final long MAX_TIME = (1L << (63 - PAYLOAD_BITS - TYPE_BITS)) - 1;
+    static final int MAX_PAYLOAD = (int) PAYLOAD_MASK;
+
+    private long[] heap;
+    private int size;
+
+    public EventQueue()
+    {
+        this(16);
+    }
+
+    public EventQueue(int initialCapacity)
+    {
+        heap = new long[Math.max(initialCapacity, 2)];
+    }
+
+    public void add(long time, int type, int payload)
+    {
+        if (time < 0 || time > MAX_TIME) {
+            throw new IllegalArgumentException("Event time out of range: " + time);
+        }
+        if (payload < 0 || payload > MAX_PAYLOAD) {
+            throw new IllegalArgumentException("Event payload out of range: " + payload);
+        }
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+
+        // sift the new event up from the bottom of the heap
+        long event = (time << (PAYLOAD_BITS + TYPE_BITS)) | ((long) type << PAYLOAD_BITS) | payload;
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= event) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = event;
+    }
+
+    public long peek()
+    {
+        // "retrieve" but not "remove" the earliest event
+        if (size == 0) throw new IllegalStateException("Event queue is empty");
+        return heap[0];
+    }
+
+    public long poll()
+    {
+        // remove and return the earliest event
+        long first = peek();
+        long last = heap[--size];
+
+        // sift the last event down from the top of the heap
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) child++;
+            if (last <= heap[child]) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return first;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    // decode fields of a packed event
+
+    static long timeOf(long event)
+    {
+        return event >>> (PAYLOAD_BITS + TYPE_BITS);
+    }
+
+    static int typeOf(long event)
+    {
+        return (int) ((event >>> PAYLOAD_BITS) & TYPE_MASK);
+    }
+
+    static int payloadOf(long event)
+    {
+        return (int) (event & PAYLOAD_MASK);
+    }
+
+    public static void main(String[] args)
+    {
+        // quick check
+        EventQueue events = new EventQueue(2);
+        events.add(7, COMPLETION, 3);
+        events.add(7, ARRIVAL, 0);
+        events.add(2, COMPLETION, 1);
+        events.add(7, COMPLETION, 0);
+        events.add(10, END, 0);
+        while (!events.isEmpty()) {
+            long e = events.poll();
+            System.out.println("time " + timeOf(e) + " type " + typeOf(e) + " payload " + payloadOf(e));
+        }
+    }
+}
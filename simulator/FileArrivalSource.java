@@ -0,0 +1,53 @@
+package simulator;
+
+import java.io.File;
+import java.io.IOException;
+
+// Customer data read from a data file, one line of two integers per time unit:
+//
+//      anyNewArrival = (((data1 % 100) + 1) <= chancesOfArrival);
+//      transactionTime = (data2 % maxTransactionTime) + 1;
+//
+// Once the file runs out, both numbers are taken as 0. The file is read
+// through a MappedIntReader, so reading it allocates nothing per time unit.
+class FileArrivalSource implements ArrivalSource
+{
+    private final MappedIntReader dataFile;
+    private final int chancesOfArrival;
+    private final int maxTransactionTime;
+
+    private int transactionTime;
+
+    public FileArrivalSource(File dataFile, int chancesOfArrival, int maxTransactionTime) throws IOException
+    {
+        this.dataFile = new MappedIntReader(dataFile);
+        this.chancesOfArrival = chancesOfArrival;
+        this.maxTransactionTime = maxTransactionTime;
+    }
+
+    @Override
+    public long nextArrivalTime(long fromTime, long endTime)
+    {
+        for (long time = fromTime; time < endTime; time++) {
+            int data1, data2;
+            data1 = data2 = 0;
+
+            // assign 2 integers from file to data1 & data2
+            if (dataFile.hasNextInt()) {
+                data1 = dataFile.nextInt();
+                data2 = dataFile.nextInt();
+            }
+
+            boolean anyNewArrival = (((data1%100)+1) <= chancesOfArrival);
+            transactionTime = (data2%maxTransactionTime)+1;
+            if (anyNewArrival) return time;
+        }
+        return endTime;
+    }
+
+    @Override
+    public int getTransactionTime()
+    {
+        return transactionTime;
+    }
+}
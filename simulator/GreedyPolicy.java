@@ -0,0 +1,48 @@
+package simulator;
+
+// Greedy (Least Finish Time): the original algorithm built on the queues of
+// the ServiceArea. Free tellers wait in a FIFO queue, so the teller that has
+// been free the longest serves next, and busy tellers leave the priority
+// queue in order of their end busy interval time.
+//
+// The engine serves customers with the ServiceArea's own tellers, so this
+// policy only moves them between the two queues; their state and statistics
+// are kept once, by the engine.
+class GreedyPolicy implements SchedulingPolicy
+{
+    private ServiceArea servicearea;
+
+    @Override
+    public String getName()
+    {
+        return "Greedy";
+    }
+
+    @Override
+    public void init(ServiceArea servicearea, TellerPool tellers)
+    {
+        this.servicearea = servicearea;
+    }
+
+    @Override
+    public int selectTeller(long currentTime)
+    {
+        if (servicearea.emptyFreeTellerQ()) return -1;
+        return servicearea.getFrontFreeTellerQ().getTellerID() - 1;
+    }
+
+    @Override
+    public void tellerBusy(int tellerIndex, long customerID, int transactionTime, long arrivalTime, long currentTime)
+    {
+        // the engine made the front free teller busy until its end time
+        servicearea.insertBusyTellerQ(servicearea.removeFreeTellerQ());
+    }
+
+    @Override
+    public void tellerFree(int tellerIndex, long currentTime)
+    {
+        // the busy teller queue decides which of the tellers finishing
+        // now goes to the free teller queue first
+        servicearea.insertFreeTellerQ(servicearea.removeBusyTellerQ());
+    }
+}
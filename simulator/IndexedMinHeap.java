@@ -0,0 +1,156 @@
+package simulator;
+
+import java.util.Arrays;
+
+//--------------------------------------------------------------------------
+//
+// Binary min-heap over the indices 0..capacity-1, each with a long key.
+//
+// Unlike PriorityQueue, an index already in the heap can have its key
+// changed in O(log n) (decrease-key or increase-key), because the heap keeps
+// the position of every index. Equal keys are ordered by index, so the
+// minimum is the same one a linear scan for the first smallest key finds.
+//
+class IndexedMinHeap
+{
+    private final int[] heap;      // heap[k] = index at heap position k
+    private final int[] position;  // position[i] = heap position of index i, -1 if absent
+    private final long[] keys;     // keys[i] = key of index i
+    private int size;
+
+    public IndexedMinHeap(int capacity)
+    {
+        heap = new int[capacity];
+        position = new int[capacity];
+        keys = new long[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    public void insert(int index, long key)
+    {
+        if (contains(index)) throw new IllegalArgumentException("Index already in heap: " + index);
+        keys[index] = key;
+        heap[size] = index;
+        position[index] = size;
+        siftUp(size++);
+    }
+
+    // change the key of an index in the heap, in either direction
+    public void update(int index, long key)
+    {
+        if (!contains(index)) throw new IllegalArgumentException("Index not in heap: " + index);
+        long old = keys[index];
+        keys[index] = key;
+        if (key < old) {
+            siftUp(position[index]);
+        } else if (key > old) {
+            siftDown(position[index]);
+        }
+    }
+
+    public int peekIndex()
+    {
+        // "retrieve" but not "remove" the index with the smallest key
+        if (size == 0) throw new IllegalStateException("Heap is empty");
+        return heap[0];
+    }
+
+    public long peekKey()
+    {
+        return keys[peekIndex()];
+    }
+
+    public int poll()
+    {
+        // remove and return the index with the smallest key
+        int first = peekIndex();
+        remove(first);
+        return first;
+    }
+
+    public void remove(int index)
+    {
+        if (!contains(index)) throw new IllegalArgumentException("Index not in heap: " + index);
+        int k = position[index];
+        int last = heap[--size];
+        position[index] = -1;
+        if (k == size) return;
+        heap[k] = last;
+        position[last] = k;
+        siftUp(k);
+        siftDown(position[last]);
+    }
+
+    public boolean contains(int index)
+    {
+        return position[index] >= 0;
+    }
+
+    public long keyOf(int index)
+    {
+        return keys[index];
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    private boolean less(int a, int b)
+    {
+        return keys[a] < keys[b] || (keys[a] == keys[b] && a < b);
+    }
+
+    private void siftUp(int k)
+    {
+        int index = heap[k];
+        while (k > 0) {
+            int parent = (k - 1) >>> 1;
+            if (!less(index, heap[parent])) break;
+            heap[k] = heap[parent];
+            position[heap[k]] = k;
+            k = parent;
+        }
+        heap[k] = index;
+        position[index] = k;
+    }
+
+    private void siftDown(int k)
+    {
+        int index = heap[k];
+        int half = size >>> 1;
+        while (k < half) {
+            int child = 2 * k + 1;
+            if (child + 1 < size && less(heap[child + 1], heap[child])) child++;
+            if (!less(heap[child], index)) break;
+            heap[k] = heap[child];
+            position[heap[k]] = k;
+            k = child;
+        }
+        heap[k] = index;
+        position[index] = k;
+    }
+
+    public static void main(String[] args)
+    {
+        // quick check
+        IndexedMinHeap h = new IndexedMinHeap(5);
+        for (int i = 0; i < 5; i++) h.insert(i, 0);
+        h.update(0, 30);
+        h.update(1, 10);
+        h.update(3, 20);
+        System.out.println("min index " + h.peekIndex() + " key " + h.peekKey());
+        h.update(2, 40);
+        h.update(4, 50);
+        h.update(0, 5);
+        while (!h.isEmpty()) {
+            long key = h.peekKey();
+            System.out.println("index " + h.poll() + " key " + key);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package simulator;
+
+// Least Work Left: the next customer goes to the teller that finishes its
+// current work soonest. A free teller has no work left; if the teller that
+// finishes soonest is still busy, the customer keeps waiting.
+//
+// Tellers sit in an IndexedMinHeap keyed on when their work runs out: the
+// end busy interval time for a busy teller, NO_WORK_LEFT for a free one.
+// Ordering by end time is the same as ordering by remaining work at any
+// moment, so keys only change on assignment and completion, and selecting a
+// teller is O(1) plus O(log n) per update instead of a scan of all tellers.
+class LeastWorkLeftPolicy implements SchedulingPolicy
+{
+    private static final long NO_WORK_LEFT = -1;
+
+    private TellerPool tellers;
+    private IndexedMinHeap workLeft;
+
+    @Override
+    public String getName()
+    {
+        return "Least Work Left";
+    }
+
+    @Override
+    public void init(ServiceArea servicearea, TellerPool tellers)
+    {
+        this.tellers = tellers;
+        workLeft = new IndexedMinHeap(tellers.size());
+        for (int i = 0; i < tellers.size(); i++) {
+            workLeft.insert(i, NO_WORK_LEFT);
+        }
+    }
+
+    @Override
+    public int selectTeller(long currentTime)
+    {
+        if (workLeft.isEmpty() || workLeft.peekKey() != NO_WORK_LEFT) return -1;
+        return workLeft.peekIndex();
+    }
+
+    @Override
+    public void tellerBusy(int tellerIndex, long customerID, int transactionTime, long arrivalTime, long currentTime)
+    {
+        workLeft.update(tellerIndex, tellers.getEndBusyIntervalTime(tellerIndex));
+    }
+
+    @Override
+    public void tellerFree(int tellerIndex, long currentTime)
+    {
+        workLeft.update(tellerIndex, NO_WORK_LEFT);
+    }
+}
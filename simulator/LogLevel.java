@@ -0,0 +1,16 @@
+package simulator;
+
+// How much a simulation run logs, from nothing to every event. Each level
+// includes the ones before it.
+enum LogLevel
+{
+    OFF,      // nothing
+    SUMMARY,  // end of run reports and the comparison table
+    STEP,     // plus time, queue and teller counts of every time step
+    EVENT;    // plus every arrival, departure and teller assignment
+
+    public static LogLevel parse(String name)
+    {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
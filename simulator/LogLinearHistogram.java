@@ -0,0 +1,137 @@
+package simulator;
+
+import java.util.Arrays;
+
+//--------------------------------------------------------------------------
+//
+// Constant-memory histogram of non-negative long values for percentiles.
+//
+// With the default precision, values below 128 get one bucket each and are
+// exact. Above that, every power-of-two range [2^k, 2^(k+1)) is split into
+// 64 equal buckets, so a reported percentile is within 1/64 (about 1.6%) of
+// the true value. Fewer sub-buckets trade precision for memory: with 2^b
+// sub-buckets values below 2^(b+1) are exact and the error is within 2^-b.
+//
+// The counters cover the whole long range in at most
+// 2^b * (64 - b) buckets, but the array only grows up to the highest bucket
+// recorded so far, so small values take little memory. Count, sum and
+// maximum are exact. Recording a value is a few shifts and one increment,
+// with no boxing.
+//
+class LogLinearHistogram
+{
+    private static final int DEFAULT_SUB_BUCKET_BITS = 6;  // 64 sub-buckets
+    private static final int INITIAL_BUCKETS = 64;
+
+    private final int subBucketBits;
+    private final int exactLimit;
+    private final int maxBuckets;
+
+    private long[] counts;
+    private long totalCount;
+    private long totalValue;
+    private long maxValue;
+
+    public LogLinearHistogram()
+    {
+        this(DEFAULT_SUB_BUCKET_BITS);
+    }
+
+    public LogLinearHistogram(int subBucketBits)
+    {
+        if (subBucketBits < 1 || subBucketBits > 16) {
+            throw new IllegalArgumentException("Sub-bucket bits must be 1..16: " + subBucketBits);
+        }
+        this.subBucketBits = subBucketBits;
+        exactLimit = 2 << subBucketBits;
+        maxBuckets = (1 << subBucketBits) * (64 - subBucketBits);
+        counts = new long[Math.min(INITIAL_BUCKETS, maxBuckets)];
+    }
+
+    public void record(long value)
+    {
+        record(value, 1);
+    }
+
+    public void record(long value, long count)
+    {
+        if (value < 0) throw new IllegalArgumentException("Negative value: " + value);
+        int bucket = bucketOf(value);
+        if (bucket >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.min(maxBuckets, Math.max(bucket + 1, 2 * counts.length)));
+        }
+        counts[bucket] += count;
+        totalCount += count;
+        totalValue += value * count;
+        if (value > maxValue) maxValue = value;
+    }
+
+    public long getTotalCount()
+    {
+        return totalCount;
+    }
+
+    public double getMean()
+    {
+        return totalCount == 0 ? 0.0 : (double) totalValue / totalCount;
+    }
+
+    public long getMax()
+    {
+        return maxValue;
+    }
+
+    // Smallest recorded value v such that at least percentile % of all
+    // values are <= v, reported as the upper end of its bucket.
+    public long getValueAtPercentile(double percentile)
+    {
+        if (totalCount == 0) return 0;
+        long rank = (long) Math.ceil(percentile / 100.0 * totalCount);
+        if (rank < 1) rank = 1;
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(highestValueIn(i), maxValue);
+        }
+        return maxValue;
+    }
+
+    public void reset()
+    {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        totalValue = 0;
+        maxValue = 0;
+    }
+
+    int bucketOf(long value)
+    {
+        if (value < exactLimit) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - subBucketBits;
+        return (shift << subBucketBits) + (int) (value >>> shift);
+    }
+
+    long highestValueIn(int bucket)
+    {
+        if (bucket < exactLimit) return bucket;
+        int shift = (bucket >>> subBucketBits) - 1;
+        long subBucket = (bucket & ((1 << subBucketBits) - 1)) + (1 << subBucketBits);
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    public static void main(String[] args)
+    {
+        // quick check
+        LogLinearHistogram h = new LogLinearHistogram();
+        for (int v = 1; v <= 1000; v++) h.record(v);
+        System.out.println("p50 " + h.getValueAtPercentile(50) + " p95 " + h.getValueAtPercentile(95)
+                + " p99 " + h.getValueAtPercentile(99) + " p100 " + h.getValueAtPercentile(100)
+                + " mean " + h.getMean() + " max " + h.getMax());
+        System.out.println("max bucket " + h.bucketOf(Long.MAX_VALUE) + " of " + h.maxBuckets
+                + ", " + h.counts.length + " in use");
+        LogLinearHistogram coarse = new LogLinearHistogram(4);
+        for (int v = 1; v <= 1000; v++) coarse.record(v);
+        System.out.println("4 bits: p50 " + coarse.getValueAtPercentile(50) + " p95 " + coarse.getValueAtPercentile(95)
+                + ", " + coarse.counts.length + " buckets in use");
+    }
+}
@@ -0,0 +1,152 @@
+package simulator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+//--------------------------------------------------------------------------
+//
+// Reads whitespace separated decimal integers from a memory-mapped file.
+//
+// Scanner.nextInt() matches every token against a regular expression and
+// creates strings on the way, which made file-driven runs far slower than
+// random ones. This reader parses the digits straight from the mapped bytes
+// and creates no objects per number.
+//
+// A mapped buffer holds at most 2 GB, so the file is mapped in windows of
+// WINDOW_SIZE bytes, one after the other; a number may span two windows.
+// The file itself can be of any size. The channel is closed as soon as a
+// window is mapped (a mapping stays valid without it), so a reader holds no
+// file handle and does not need to be closed.
+//
+// As with Scanner.hasNextInt(), the input ends at the end of the file or at
+// the first token that is not an int, whichever comes first; that token and
+// any read after the end give 0.
+//
+class MappedIntReader
+{
+    private static final long WINDOW_SIZE = 256L << 20;   // 256 MB
+
+    private final File file;
+    private final long fileSize;
+    private MappedByteBuffer window;
+    private long windowEnd;          // file offset just past the window
+    private boolean exhausted;
+
+    public MappedIntReader(File file) throws IOException
+    {
+        this.file = file;
+        this.fileSize = file.length();
+        windowEnd = 0;
+        exhausted = !mapNextWindow();
+    }
+
+    // false once the input has ended; a bad token is only found by nextInt()
+    public boolean hasNextInt()
+    {
+        if (exhausted) return false;
+        int b = skipWhitespace();
+        if (b < 0) {
+            exhausted = true;
+            return false;
+        }
+        unread();
+        return true;
+    }
+
+    // the next int, or 0 once the input has ended
+    public int nextInt()
+    {
+        if (exhausted) return 0;
+        int b = skipWhitespace();
+        boolean negative = false;
+        if (b == '-' || b == '+') {
+            negative = (b == '-');
+            b = read();
+        }
+        if (b < '0' || b > '9') return end();
+
+        long value = 0;
+        do {
+            value = value * 10 + (b - '0');
+            if (value > Integer.MAX_VALUE + 1L) return end();
+            b = read();
+        } while (b >= '0' && b <= '9');
+
+        if (b >= 0 && !isWhitespace(b)) return end();
+        if (negative) value = -value;
+        if (value > Integer.MAX_VALUE) return end();
+        return (int) value;
+    }
+
+    private int end()
+    {
+        exhausted = true;
+        return 0;
+    }
+
+    //----------------------------------------------------------------
+    //
+    // bytes of the file, window by window
+    //
+
+    private int skipWhitespace()
+    {
+        int b = read();
+        while (b >= 0 && isWhitespace(b)) b = read();
+        return b;
+    }
+
+    private static boolean isWhitespace(int b)
+    {
+        return b <= ' ';    // blank, tab, line breaks and other control bytes
+    }
+
+    // next byte of the file, or -1 at its end
+    private int read()
+    {
+        if (!window.hasRemaining()) {
+            try {
+                if (!mapNextWindow()) return -1;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        return window.get() & 0xff;
+    }
+
+    // step back over the byte just read, even if it began a new window
+    private void unread()
+    {
+        window.position(window.position() - 1);
+    }
+
+    private boolean mapNextWindow() throws IOException
+    {
+        if (windowEnd >= fileSize) return false;
+        long start = windowEnd;
+        long size = Math.min(WINDOW_SIZE, fileSize - start);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+        }
+        windowEnd = start + size;
+        return true;
+    }
+
+    // quick check: count the ints of a file and time it
+    public static void main(String[] args) throws IOException
+    {
+        long start = System.nanoTime();
+        MappedIntReader reader = new MappedIntReader(new File(args[0]));
+        long count = 0, sum = 0;
+        while (reader.hasNextInt()) {
+            sum += reader.nextInt();
+            count++;
+        }
+        System.out.printf("%d ints, sum %d, %.1f ms\n", count, sum, (System.nanoTime() - start) / 1e6);
+    }
+}
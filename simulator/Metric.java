@@ -0,0 +1,43 @@
+package simulator;
+
+import java.util.function.ToDoubleFunction;
+
+// The metrics of an AlgorithmResult, as numbers that can be aggregated over
+// many runs.
+enum Metric
+{
+    AVG_WAIT_TIME("Avg wait time", AlgorithmResult::getAvgWaitTime),
+    P50_WAIT_TIME("P50 wait time", AlgorithmResult::getP50WaitTime),
+    P95_WAIT_TIME("P95 wait time", AlgorithmResult::getP95WaitTime),
+    P99_WAIT_TIME("P99 wait time", AlgorithmResult::getP99WaitTime),
+    MAX_WAIT_TIME("Max wait time", AlgorithmResult::getMaxWaitTime),
+    TELLER_UTILIZATION("Utilization %", AlgorithmResult::getAvgTellerUtilization),
+    QUEUE_EFFICIENCY("Queue eff. %", AlgorithmResult::getQueueEfficiency),
+    TOTAL_CUSTOMERS("Customers", AlgorithmResult::getTotalCustomers),
+    CUSTOMERS_SERVED("Served", AlgorithmResult::getCustomersServed),
+    CUSTOMERS_GONE_AWAY("Gone away", AlgorithmResult::getCustomersGoneAway),
+    GO_AWAY_RATE("Go-away %", r -> r.getTotalCustomers() == 0 ? 0.0
+            : 100.0 * r.getCustomersGoneAway() / r.getTotalCustomers()),
+    AVG_SERVICE_TIME("Avg service time", AlgorithmResult::getAvgServiceTime),
+    PEAK_QUEUE_LENGTH("Peak queue", AlgorithmResult::getPeakQueueLength),
+    AVG_QUEUE_LENGTH("Avg queue", AlgorithmResult::getAvgQueueLength);
+
+    private final String label;
+    private final ToDoubleFunction<AlgorithmResult> extractor;
+
+    Metric(String label, ToDoubleFunction<AlgorithmResult> extractor)
+    {
+        this.label = label;
+        this.extractor = extractor;
+    }
+
+    public String getLabel()
+    {
+        return label;
+    }
+
+    public double valueOf(AlgorithmResult result)
+    {
+        return extractor.applyAsDouble(result);
+    }
+}
@@ -0,0 +1,79 @@
+package simulator;
+
+// Mean, standard deviation and 95% confidence interval of a metric over
+// independent replications.
+//
+// The interval is mean +/- t * sd / sqrt(n) with the two-sided 95% quantile
+// of Student's t distribution for n-1 degrees of freedom, so it is also
+// valid for the small replication counts a sequential stopping rule starts
+// with.
+class MetricSummary
+{
+    // two-sided 95% quantiles of Student's t for 1..30 degrees of freedom
+    private static final double[] T_95 = {
+        12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+        2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+        2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+
+    private final long count;
+    private final double mean, stdDev, halfWidth;
+
+    public MetricSummary(RunningStats stats)
+    {
+        count = stats.getCount();
+        mean = stats.getMean();
+        stdDev = stats.getStdDev();
+        halfWidth = count < 2 ? Double.POSITIVE_INFINITY
+                : tQuantile95(count - 1) * stdDev / Math.sqrt(count);
+    }
+
+    static double tQuantile95(long degreesOfFreedom)
+    {
+        if (degreesOfFreedom <= T_95.length) return T_95[(int) degreesOfFreedom - 1];
+
+        // Cornish-Fisher expansion around the normal quantile, exact to
+        // three decimals from 30 degrees of freedom on
+        double z = 1.959964, v = degreesOfFreedom;
+        return z + (z*z*z + z) / (4 * v) + (5*z*z*z*z*z + 16*z*z*z + 3*z) / (96 * v * v);
+    }
+
+    // accessor methods
+
+    public long getCount()
+    {
+        return count;
+    }
+
+    public double getMean()
+    {
+        return mean;
+    }
+
+    public double getStdDev()
+    {
+        return stdDev;
+    }
+
+    // half-width of the 95% confidence interval, infinite below 2 samples
+    public double getHalfWidth()
+    {
+        return halfWidth;
+    }
+
+    public double getLower()
+    {
+        return mean - halfWidth;
+    }
+
+    public double getUpper()
+    {
+        return mean + halfWidth;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%.3f +/- %.3f (sd %.3f, n=%d)", mean, halfWidth, stdDev, count);
+    }
+}
@@ -0,0 +1,131 @@
+package simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+//--------------------------------------------------------------------------
+//
+// Parameter sweep over the grid of numTellers x chancesOfArrival x
+// maxTransactionTime x customerQLimit x algorithm, e.g. to find how many
+// tellers are needed at 40/60/80% arrival chance with transaction times up
+// to 20/30/50.
+//
+// Every grid point is a Scenario, replicated by a ReplicationRunner. The
+// points are submitted to a ForkJoinPool as separate tasks, so idle workers
+// steal points (and replications) from busy ones, and each result is handed
+// to the consumer as soon as its point is done, in completion order. The
+// consumer is called by one thread at a time.
+//
+// The seed of a point depends only on the customer load (chances of arrival
+// and maximum transaction time), so all teller counts, queue limits and
+// algorithms at the same load see the same customers: neighbouring points of
+// the grid are paired comparisons, as in comparison mode.
+//
+class ParameterSweep
+{
+    private final long simulationTime;
+    private final long seed;
+    private int replications = 1;
+
+    private int[] numTellers = { 1 };
+    private int[] chancesOfArrival = { 50 };
+    private int[] maxTransactionTime = { 10 };
+    private int[] customerQLimit = { 10 };
+    private String[] algorithms = { "Greedy", "Round Robin", "Least Work Left" };
+
+    public ParameterSweep(long simulationTime, long seed)
+    {
+        this.simulationTime = simulationTime;
+        this.seed = seed;
+    }
+
+    // values from, from+step, ... up to and including to
+    public static int[] range(int from, int to, int step)
+    {
+        if (step < 1 || to < from) throw new IllegalArgumentException("Empty range");
+        int[] values = new int[(to - from) / step + 1];
+        for (int i = 0; i < values.length; i++) values[i] = from + i * step;
+        return values;
+    }
+
+    public void setNumTellers(int... values)         { numTellers = values.clone(); }
+    public void setChancesOfArrival(int... values)   { chancesOfArrival = values.clone(); }
+    public void setMaxTransactionTime(int... values) { maxTransactionTime = values.clone(); }
+    public void setCustomerQLimit(int... values)     { customerQLimit = values.clone(); }
+    public void setAlgorithms(String... values)      { algorithms = values.clone(); }
+
+    public void setReplications(int replications)
+    {
+        if (replications < 1) throw new IllegalArgumentException("Need at least one replication");
+        this.replications = replications;
+    }
+
+    public int size()
+    {
+        return numTellers.length * chancesOfArrival.length * maxTransactionTime.length
+                * customerQLimit.length * algorithms.length;
+    }
+
+    public void run(Consumer<ReplicationRunner> results)
+    {
+        run(results, ForkJoinPool.commonPool());
+    }
+
+    public void run(Consumer<ReplicationRunner> results, ForkJoinPool pool)
+    {
+        Object lock = new Object();
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(size());
+        for (int chances : chancesOfArrival) {
+            for (int maxTrans : maxTransactionTime) {
+                long loadSeed = seed ^ (((long) chances << 32) | maxTrans) * 0x9E3779B97F4A7C15L;
+                for (int tellers : numTellers) {
+                    for (int queueLimit : customerQLimit) {
+                        for (String algorithm : algorithms) {
+                            Scenario scenario = new Scenario(tellers, queueLimit, simulationTime,
+                                    chances, maxTrans, algorithm);
+                            tasks.add(pool.submit(() -> {
+                                ReplicationRunner runner = new ReplicationRunner(scenario, loadSeed, pool);
+                                runner.run(replications);
+                                synchronized (lock) {
+                                    results.accept(runner);
+                                }
+                            }));
+                        }
+                    }
+                }
+            }
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        // quick check: staffing study, printed as CSV in completion order
+        ParameterSweep sweep = new ParameterSweep(10000, 42);
+        sweep.setNumTellers(range(1, 20, 1));
+        sweep.setChancesOfArrival(40, 60, 80);
+        sweep.setMaxTransactionTime(20, 30, 50);
+        sweep.setCustomerQLimit(10, 50);
+        sweep.setReplications(5);
+
+        System.out.println("algorithm,tellers,chances,maxTrans,queueLimit,avgWait,p95Wait,utilization,goneAway");
+        long start = System.nanoTime();
+        sweep.run(runner -> {
+            Scenario s = runner.getScenario();
+            System.out.printf("%s,%d,%d,%d,%d,%.3f,%.1f,%.2f,%.1f\n",
+                s.getAlgorithm(), s.getNumTellers(), s.getChancesOfArrival(),
+                s.getMaxTransactionTime(), s.getCustomerQLimit(),
+                runner.getSummary(Metric.AVG_WAIT_TIME).getMean(),
+                runner.getSummary(Metric.P95_WAIT_TIME).getMean(),
+                runner.getSummary(Metric.TELLER_UTILIZATION).getMean(),
+                runner.getSummary(Metric.CUSTOMERS_GONE_AWAY).getMean());
+        });
+        System.err.printf("%d grid points x %d replications in %.2f s\n",
+                sweep.size(), sweep.replications, (System.nanoTime() - start) / 1e9);
+    }
+}
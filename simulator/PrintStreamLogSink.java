@@ -0,0 +1,41 @@
+package simulator;
+
+import java.io.PrintStream;
+
+// Synchronous sink that prints every enabled line to a PrintStream, e.g. into
+// an in-memory buffer. The stream is flushed but never closed.
+class PrintStreamLogSink implements SimulationLogSink
+{
+    private final PrintStream out;
+    private final LogLevel level;
+
+    public PrintStreamLogSink(PrintStream out, LogLevel level)
+    {
+        this.out = out;
+        this.level = level;
+    }
+
+    @Override
+    public LogLevel getLevel()
+    {
+        return level;
+    }
+
+    @Override
+    public void log(LogLevel level, String line)
+    {
+        if (isEnabled(level)) out.println(line);
+    }
+
+    @Override
+    public void flush()
+    {
+        out.flush();
+    }
+
+    @Override
+    public void close()
+    {
+        flush();
+    }
+}
@@ -0,0 +1,75 @@
+package simulator;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+//--------------------------------------------------------------------------
+//
+// Publishes ProgressSnapshots of a running simulation for a viewer on
+// another thread, at most once per minimum interval.
+//
+// Snapshots are coalesced: only the newest unseen one is kept, and poll()
+// takes it. A viewer that polls on its own timer (e.g. a JavaFX Timeline at
+// 30 Hz) therefore never gets a backlog of updates, however fast the
+// simulation runs. The clock is read only every CLOCK_EVENTS events to keep
+// the cost per event negligible.
+//
+class ProgressObserver implements SimulationObserver
+{
+    private static final int CLOCK_EVENTS = 256;
+
+    private final long simulationTime;
+    private final long minIntervalNanos;
+    private final AtomicReference<ProgressSnapshot> latest = new AtomicReference<>();
+
+    private int waitingCustomers, busyTellers;
+    private long customersServed;
+    private double totalWaitTime;
+    private int eventsSinceClock;
+    private long lastPublished;
+
+    public ProgressObserver(long simulationTime, int maxUpdatesPerSecond)
+    {
+        this.simulationTime = simulationTime;
+        this.minIntervalNanos = 1_000_000_000L / maxUpdatesPerSecond;
+    }
+
+    @Override
+    public void timeStep(long currentTime, int waitingCustomers, int busyTellers)
+    {
+        this.waitingCustomers = waitingCustomers;
+        this.busyTellers = busyTellers;
+        if (++eventsSinceClock < CLOCK_EVENTS) return;
+        eventsSinceClock = 0;
+
+        long now = System.nanoTime();
+        if (now - lastPublished >= minIntervalNanos) {
+            lastPublished = now;
+            publish(currentTime);
+        }
+    }
+
+    @Override
+    public void customerServed(long currentTime, long customerID, int tellerID, int transactionTime, long waitTime)
+    {
+        customersServed++;
+        totalWaitTime += waitTime;
+    }
+
+    @Override
+    public void simulationEnded(long endTime)
+    {
+        publish(endTime);
+    }
+
+    private void publish(long currentTime)
+    {
+        latest.set(new ProgressSnapshot(currentTime, simulationTime, waitingCustomers, busyTellers,
+                customersServed, customersServed == 0 ? 0.0 : totalWaitTime / customersServed));
+    }
+
+    // the newest snapshot not taken yet, or null
+    public ProgressSnapshot poll()
+    {
+        return latest.getAndSet(null);
+    }
+}
@@ -0,0 +1,34 @@
+package simulator;
+
+// State of a running simulation at one moment, for live progress display.
+class ProgressSnapshot
+{
+    private final long currentTime, simulationTime;
+    private final int waitingCustomers, busyTellers;
+    private final long customersServed;
+    private final double averageWaitTime;
+
+    public ProgressSnapshot(long currentTime, long simulationTime, int waitingCustomers, int busyTellers,
+                            long customersServed, double averageWaitTime)
+    {
+        this.currentTime = currentTime;
+        this.simulationTime = simulationTime;
+        this.waitingCustomers = waitingCustomers;
+        this.busyTellers = busyTellers;
+        this.customersServed = customersServed;
+        this.averageWaitTime = averageWaitTime;
+    }
+
+    public long getCurrentTime()      { return currentTime; }
+    public long getSimulationTime()   { return simulationTime; }
+    public int getWaitingCustomers()  { return waitingCustomers; }
+    public int getBusyTellers()       { return busyTellers; }
+    public long getCustomersServed()  { return customersServed; }
+    public double getAverageWaitTime() { return averageWaitTime; }
+
+    // fraction of the run done, 0..1
+    public double getProgress()
+    {
+        return simulationTime == 0 ? 1.0 : (double) currentTime / simulationTime;
+    }
+}
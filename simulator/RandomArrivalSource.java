@@ -0,0 +1,41 @@
+package simulator;
+
+import java.util.Random;
+
+// Customer data generated by a Random object, one draw pair per time unit:
+//
+//      anyNewArrival = ((dataRandom.nextInt(100) + 1) <= chancesOfArrival);
+//      transactionTime = dataRandom.nextInt(maxTransactionTime) + 1;
+//
+class RandomArrivalSource implements ArrivalSource
+{
+    private final Random dataRandom;
+    private final int chancesOfArrival;
+    private final int maxTransactionTime;
+
+    private int transactionTime;
+
+    public RandomArrivalSource(Random dataRandom, int chancesOfArrival, int maxTransactionTime)
+    {
+        this.dataRandom = dataRandom;
+        this.chancesOfArrival = chancesOfArrival;
+        this.maxTransactionTime = maxTransactionTime;
+    }
+
+    @Override
+    public long nextArrivalTime(long fromTime, long endTime)
+    {
+        for (long time = fromTime; time < endTime; time++) {
+            boolean anyNewArrival = ((dataRandom.nextInt(100)+1) <= chancesOfArrival);
+            transactionTime = dataRandom.nextInt(maxTransactionTime)+1;
+            if (anyNewArrival) return time;
+        }
+        return endTime;
+    }
+
+    @Override
+    public int getTransactionTime()
+    {
+        return transactionTime;
+    }
+}
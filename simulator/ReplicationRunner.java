@@ -0,0 +1,136 @@
+package simulator;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+//--------------------------------------------------------------------------
+//
+// Monte Carlo replication of one Scenario.
+//
+// One run is one noisy sample. The runner executes independent replications
+// of the scenario, each with its own seed and its own SimulationRun, on a
+// ForkJoinPool, and aggregates every Metric of their AlgorithmResults into
+// RunningStats. Summaries give mean, standard deviation and 95% confidence
+// interval.
+//
+// Replication i always uses seed seedOf(i), and results are added in
+// replication order, so the outcome does not depend on the number of
+// threads. Replications can be added in batches: runUntil() is a sequential
+// stopping rule that keeps adding replications until the confidence interval
+// of one metric is narrow enough, so easy scenarios stop early.
+//
+class ReplicationRunner
+{
+    private final Scenario scenario;
+    private final long baseSeed;
+    private final ForkJoinPool pool;
+
+    private final Map<Metric, RunningStats> stats;
+    private int replications;
+
+    public ReplicationRunner(Scenario scenario, long baseSeed)
+    {
+        this(scenario, baseSeed, ForkJoinPool.commonPool());
+    }
+
+    public ReplicationRunner(Scenario scenario, long baseSeed, ForkJoinPool pool)
+    {
+        this.scenario = scenario;
+        this.baseSeed = baseSeed;
+        this.pool = pool;
+        stats = new EnumMap<>(Metric.class);
+        for (Metric metric : Metric.values()) {
+            stats.put(metric, new RunningStats());
+        }
+    }
+
+    // run count more replications
+    public void run(int count)
+    {
+        int first = replications;
+        List<AlgorithmResult> results = pool.submit(() ->
+                IntStream.range(first, first + count).parallel()
+                    .mapToObj(i -> scenario.newRun(seedOf(i)).call().toAlgorithmResult())
+                    .collect(Collectors.toList()))
+            .join();
+
+        // add in replication order
+        for (AlgorithmResult result : results) {
+            for (Metric metric : Metric.values()) {
+                stats.get(metric).add(metric.valueOf(result));
+            }
+        }
+        replications += count;
+    }
+
+    // Sequential stopping rule: run at least minReplications, then add
+    // batches until the 95% CI half-width of metric is at most
+    // targetHalfWidth or maxReplications have run. Returns whether the
+    // target was reached.
+    public boolean runUntil(Metric metric, double targetHalfWidth, int minReplications, int maxReplications)
+    {
+        if (minReplications < 2 || maxReplications < minReplications) {
+            throw new IllegalArgumentException("Need 2 <= minReplications <= maxReplications");
+        }
+        if (replications < minReplications) run(minReplications - replications);
+
+        int batch = Math.max(pool.getParallelism(), 2);
+        while (getSummary(metric).getHalfWidth() > targetHalfWidth && replications < maxReplications) {
+            run(Math.min(batch, maxReplications - replications));
+        }
+        return getSummary(metric).getHalfWidth() <= targetHalfWidth;
+    }
+
+    // seed of replication i: a mix of the base seed and i
+    public long seedOf(int i)
+    {
+        long z = baseSeed + (i + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // accessor methods
+
+    public Scenario getScenario()
+    {
+        return scenario;
+    }
+
+    public int getReplications()
+    {
+        return replications;
+    }
+
+    public MetricSummary getSummary(Metric metric)
+    {
+        return new MetricSummary(stats.get(metric));
+    }
+
+    public void printSummary()
+    {
+        System.out.println("\n\t*** " + scenario + " ***");
+        System.out.println("\t*** " + replications + " replications, mean / sd / 95% CI ***\n");
+        for (Metric metric : Metric.values()) {
+            MetricSummary s = getSummary(metric);
+            System.out.printf("\t\t%-17s: %10.3f  sd %9.3f  [%.3f, %.3f]\n",
+                    metric.getLabel(), s.getMean(), s.getStdDev(), s.getLower(), s.getUpper());
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        // quick check: replicate until the average wait time is known to +/- 0.05
+        Scenario scenario = new Scenario(3, 10, 10000, 60, 8, "Least Work Left");
+        ReplicationRunner runner = new ReplicationRunner(scenario, 42);
+        long start = System.nanoTime();
+        boolean reached = runner.runUntil(Metric.AVG_WAIT_TIME, 0.05, 10, 1000);
+        System.out.printf("target %s after %d replications in %.1f ms\n",
+                reached ? "reached" : "not reached", runner.getReplications(), (System.nanoTime() - start) / 1e6);
+        runner.printSummary();
+    }
+}
@@ -0,0 +1,294 @@
+package simulator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+//--------------------------------------------------------------------------
+//
+// Cache of simulation results keyed by all parameters of a run and its
+// random seed.
+//
+// A run with random customer data is fully determined by its parameters and
+// the seed of its Random, so a repeated query can be answered from the
+// cache. Results are kept in memory in least-recently-used order, at most
+// maxEntries of them. If a directory is given, every result is also written
+// there, one file per key, and a query missing in memory is looked up on
+// disk before it counts as a miss; the disk tier survives restarts and
+// keeps at most maxFiles results, dropping the least recently used ones.
+//
+// Every file starts with FILE_VERSION, and a file of another version reads
+// as a miss. FILE_VERSION must be bumped whenever the file layout changes or
+// a change to the simulation makes the same key give a different result, so
+// results of older builds are computed again instead of served stale.
+//
+// All methods are thread-safe. A result is computed outside the lock, so a
+// slow run does not block other queries; two threads missing the same key
+// at once both compute it, with the same result.
+//
+class ResultCache
+{
+    private static final int FILE_MAGIC = 0x54465243;   // "TFRC"
+    private static final int FILE_VERSION = 1;
+
+    private final int maxEntries;
+    private final File directory;   // disk tier, or null
+    private final int maxFiles;
+    private final LinkedHashMap<Key, SimulationResult> entries;
+    private long hits, diskHits, misses;
+
+    public ResultCache(int maxEntries, File directory, int maxFiles)
+    {
+        if (maxEntries < 1) throw new IllegalArgumentException("Cache size must be positive: " + maxEntries);
+        if (maxFiles < 1) throw new IllegalArgumentException("Disk cache size must be positive: " + maxFiles);
+        this.maxEntries = maxEntries;
+        this.directory = directory;
+        this.maxFiles = maxFiles;
+        if (directory != null) directory.mkdirs();
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, SimulationResult> eldest)
+            {
+                return size() > ResultCache.this.maxEntries;
+            }
+        };
+    }
+
+    // cached result of key, or the one compute returns, which is then cached
+    public SimulationResult get(Key key, Supplier<SimulationResult> compute)
+    {
+        SimulationResult result = get(key);
+        if (result == null) {
+            result = compute.get();
+            put(key, result);
+        }
+        return result;
+    }
+
+    // cached result of key, or null; counts a hit or a miss
+    public SimulationResult get(Key key)
+    {
+        synchronized (this) {
+            SimulationResult result = entries.get(key);
+            if (result != null) {
+                hits++;
+                return result;
+            }
+        }
+        SimulationResult result = directory == null ? null : read(key);
+        synchronized (this) {
+            if (result != null) {
+                diskHits++;
+                entries.put(key, result);
+            } else {
+                misses++;
+            }
+        }
+        return result;
+    }
+
+    public void put(Key key, SimulationResult result)
+    {
+        synchronized (this) {
+            entries.put(key, result);
+        }
+        if (directory != null) write(key, result);
+    }
+
+    public synchronized void clear()
+    {
+        // the memory tier only; files of the disk tier stay
+        entries.clear();
+        hits = diskHits = misses = 0;
+    }
+
+    //----------------------------------------------------------------
+    //
+    // disk tier: one file per key, named by its hash, holding the key
+    // itself so a hash collision reads as a miss. The modification time of
+    // a file is the time it was last used, which orders the files for
+    // trimming.
+    //
+
+    private File fileOf(Key key)
+    {
+        return new File(directory, String.format("result-%016x.bin", key.longHash()));
+    }
+
+    private SimulationResult read(Key key)
+    {
+        File file = fileOf(key);
+        if (!file.isFile()) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION || !key.equals(Key.read(in))) return null;
+            byte[] log = new byte[in.readInt()];
+            in.readFully(log);
+            int numTellers = in.readInt();
+            List<Double> utilizations = new ArrayList<>(numTellers);
+            for (int i = 0; i < numTellers; i++) utilizations.add(in.readDouble());
+            file.setLastModified(System.currentTimeMillis());
+            return new SimulationResult(new String(log, StandardCharsets.UTF_8), utilizations);
+        } catch (IOException ex) {
+            return null;   // unreadable file: compute the result again
+        }
+    }
+
+    private void write(Key key, SimulationResult result)
+    {
+        // write a temporary file and move it in place, so a reader never
+        // sees half a file
+        File file = fileOf(key);
+        try {
+            File tmp = File.createTempFile("result-", ".tmp", directory);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(FILE_VERSION);
+                key.write(out);
+                byte[] log = result.getLog().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(log.length);
+                out.write(log);
+                out.writeInt(result.getTellerUtilizations().size());
+                for (double utilization : result.getTellerUtilizations()) out.writeDouble(utilization);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            // the disk tier is best effort; the result is still in memory
+        }
+        trim();
+    }
+
+    // deletes the least recently used files beyond maxFiles; a write follows
+    // a whole simulation run, so listing the directory each time is cheap
+    private void trim()
+    {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith("result-") && name.endsWith(".bin"));
+        if (files == null || files.length <= maxFiles) return;
+        long[] lastUsed = new long[files.length];
+        Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; i++) {
+            lastUsed[i] = files[i].lastModified();
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(lastUsed[a], lastUsed[b]));
+        for (int i = 0; i < files.length - maxFiles; i++) files[order[i]].delete();
+    }
+
+    // accessor methods
+
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+
+    public synchronized long getHits()
+    {
+        return hits;
+    }
+
+    public synchronized long getDiskHits()
+    {
+        return diskHits;
+    }
+
+    public synchronized long getMisses()
+    {
+        return misses;
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        long queries = hits + diskHits + misses;
+        return String.format("%d entries, %d hits, %d disk hits, %d misses (%.1f%% hit rate)",
+                entries.size(), hits, diskHits, misses,
+                queries == 0 ? 0.0 : 100.0 * (hits + diskHits) / queries);
+    }
+
+    //----------------------------------------------------------------
+    //
+    // Key: all parameters of runWithParams plus the seed
+    //
+
+    static final class Key
+    {
+        private final long simulationTime;
+        private final int maxTransactionTime, chancesOfArrival, numTellers, customerQLimit;
+        private final String algorithm;
+        private final long seed;
+
+        public Key(long simulationTime, int maxTransactionTime, int chancesOfArrival,
+                   int numTellers, int customerQLimit, String algorithm, long seed)
+        {
+            this.simulationTime = simulationTime;
+            this.maxTransactionTime = maxTransactionTime;
+            this.chancesOfArrival = chancesOfArrival;
+            this.numTellers = numTellers;
+            this.customerQLimit = customerQLimit;
+            this.algorithm = algorithm;
+            this.seed = seed;
+        }
+
+        void write(DataOutputStream out) throws IOException
+        {
+            out.writeLong(simulationTime);
+            out.writeInt(maxTransactionTime);
+            out.writeInt(chancesOfArrival);
+            out.writeInt(numTellers);
+            out.writeInt(customerQLimit);
+            out.writeUTF(algorithm);
+            out.writeLong(seed);
+        }
+
+        static Key read(DataInputStream in) throws IOException
+        {
+            return new Key(in.readLong(), in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+                    in.readUTF(), in.readLong());
+        }
+
+        // 64-bit hash for file names, where 32 bits would collide too often
+        long longHash()
+        {
+            long h = 1125899906842597L;
+            for (long v : new long[] { simulationTime, maxTransactionTime, chancesOfArrival,
+                                       numTellers, customerQLimit, algorithm.hashCode(), seed }) {
+                h = 31 * h + v;
+                h ^= h >>> 29;
+            }
+            return h;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return simulationTime == k.simulationTime && maxTransactionTime == k.maxTransactionTime
+                    && chancesOfArrival == k.chancesOfArrival && numTellers == k.numTellers
+                    && customerQLimit == k.customerQLimit && seed == k.seed && algorithm.equals(k.algorithm);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(simulationTime, maxTransactionTime, chancesOfArrival,
+                    numTellers, customerQLimit, algorithm, seed);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package simulator;
+
+// Round Robin: tellers take customers in circular order (teller 1, 2, ...,
+// N, then back to 1). The search for a free teller starts right after the
+// teller that got the previous customer; the busy bitset of the TellerPool
+// finds the next free teller 64 tellers at a time.
+class RoundRobinPolicy implements SchedulingPolicy
+{
+    private TellerPool tellers;
+    private int nextIndex;
+
+    @Override
+    public String getName()
+    {
+        return "Round Robin";
+    }
+
+    @Override
+    public void init(ServiceArea servicearea, TellerPool tellers)
+    {
+        this.tellers = tellers;
+        nextIndex = 0;
+    }
+
+    @Override
+    public int selectTeller(long currentTime)
+    {
+        return tellers.nextFree(nextIndex);
+    }
+
+    @Override
+    public void tellerBusy(int tellerIndex, long customerID, int transactionTime, long arrivalTime, long currentTime)
+    {
+        nextIndex = (tellerIndex + 1) % tellers.size();
+    }
+
+    @Override
+    public void tellerFree(int tellerIndex, long currentTime)
+    {
+    }
+}
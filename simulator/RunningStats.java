@@ -0,0 +1,70 @@
+package simulator;
+
+// Streaming count, mean, variance, minimum and maximum of a series of values,
+// updated in O(1) per value with Welford's algorithm. A value may carry a
+// weight, e.g. a queue length that held for several time units.
+class RunningStats
+{
+    private long count;
+    private double mean;
+    private double m2;  // sum of squared differences from the mean
+    private double min, max;
+
+    public void add(double value)
+    {
+        add(value, 1);
+    }
+
+    public void add(double value, long weight)
+    {
+        if (weight <= 0) return;
+        if (count == 0) {
+            min = max = value;
+        } else {
+            if (value < min) min = value;
+            if (value > max) max = value;
+        }
+        count += weight;
+        double delta = value - mean;
+        mean += delta * weight / count;
+        m2 += delta * (value - mean) * weight;
+    }
+
+    public long getCount()
+    {
+        return count;
+    }
+
+    public double getMean()
+    {
+        return count == 0 ? 0.0 : mean;
+    }
+
+    public double getVariance()
+    {
+        // sample variance
+        return count < 2 ? 0.0 : m2 / (count - 1);
+    }
+
+    public double getStdDev()
+    {
+        return Math.sqrt(getVariance());
+    }
+
+    public double getMin()
+    {
+        return count == 0 ? 0.0 : min;
+    }
+
+    public double getMax()
+    {
+        return count == 0 ? 0.0 : max;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("n=%d mean=%.2f sd=%.2f min=%.0f max=%.0f",
+                count, getMean(), getStdDev(), getMin(), getMax());
+    }
+}
@@ -0,0 +1,122 @@
+package simulator;
+
+import java.util.Random;
+
+//--------------------------------------------------------------------------
+//
+// Parameters of one simulation scenario with random customer data: the
+// teller and queue setup, the customer load and the scheduling algorithm.
+//
+// A scenario is immutable and creates a fresh, isolated SimulationRun for a
+// given random seed, so the same scenario can be replicated on many threads
+// at once and every replication can be reproduced from its seed.
+//
+// With an ArrivalProfile the arrival chance varies over time: every run
+// schedules its customers from the profile before it starts, and
+// chancesOfArrival is the mean chance of the profile over the run.
+//
+class Scenario
+{
+    private final int numTellers, customerQLimit;
+    private final long simulationTime;
+    private final int chancesOfArrival, maxTransactionTime;
+    private final String algorithm;
+    private final ArrivalProfile profile;   // null for a constant chance
+
+    public Scenario(int numTellers, int customerQLimit, long simulationTime,
+                    int chancesOfArrival, int maxTransactionTime, String algorithm)
+    {
+        this(numTellers, customerQLimit, simulationTime, chancesOfArrival, maxTransactionTime, algorithm, null);
+    }
+
+    private Scenario(int numTellers, int customerQLimit, long simulationTime,
+                     int chancesOfArrival, int maxTransactionTime, String algorithm, ArrivalProfile profile)
+    {
+        if (chancesOfArrival < 1 || chancesOfArrival > 100) {
+            throw new IllegalArgumentException("Chances of arrival must be 1..100: " + chancesOfArrival);
+        }
+        if (maxTransactionTime < 1) {
+            throw new IllegalArgumentException("Maximum transaction time must be positive: " + maxTransactionTime);
+        }
+        this.numTellers = numTellers;
+        this.customerQLimit = customerQLimit;
+        this.simulationTime = simulationTime;
+        this.chancesOfArrival = chancesOfArrival;
+        this.maxTransactionTime = maxTransactionTime;
+        this.algorithm = algorithm;
+        this.profile = profile;
+    }
+
+    public SimulationRun newRun(long seed)
+    {
+        ArrivalSource arrivals = profile == null
+                ? new RandomArrivalSource(new Random(seed), chancesOfArrival, maxTransactionTime)
+                : profile.schedule(new Random(seed), maxTransactionTime, simulationTime).replay();
+        return new SimulationRun(numTellers, customerQLimit, simulationTime,
+                TellerFlowOptimizer.createPolicy(algorithm), arrivals);
+    }
+
+    public Scenario withNumTellers(int numTellers)
+    {
+        return new Scenario(numTellers, customerQLimit, simulationTime,
+                chancesOfArrival, maxTransactionTime, algorithm, profile);
+    }
+
+    public Scenario withAlgorithm(String algorithm)
+    {
+        return new Scenario(numTellers, customerQLimit, simulationTime,
+                chancesOfArrival, maxTransactionTime, algorithm, profile);
+    }
+
+    public Scenario withArrivalProfile(ArrivalProfile profile)
+    {
+        int meanChances = (int) Math.round(profile.getMeanChancesOfArrival(simulationTime));
+        return new Scenario(numTellers, customerQLimit, simulationTime,
+                Math.max(1, meanChances), maxTransactionTime, algorithm, profile);
+    }
+
+    // accessor methods
+
+    public int getNumTellers()
+    {
+        return numTellers;
+    }
+
+    public int getCustomerQLimit()
+    {
+        return customerQLimit;
+    }
+
+    public long getSimulationTime()
+    {
+        return simulationTime;
+    }
+
+    public int getChancesOfArrival()
+    {
+        return chancesOfArrival;
+    }
+
+    public int getMaxTransactionTime()
+    {
+        return maxTransactionTime;
+    }
+
+    public String getAlgorithm()
+    {
+        return algorithm;
+    }
+
+    public ArrivalProfile getArrivalProfile()
+    {
+        return profile;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s, %d tellers, queue limit %d, time %d, arrival %d%%, max transaction %d",
+                algorithm, numTellers, customerQLimit, simulationTime, chancesOfArrival, maxTransactionTime)
+                + (profile == null ? "" : ", arrival " + profile);
+    }
+}
@@ -0,0 +1,31 @@
+package simulator;
+
+//--------------------------------------------------------------------------
+//
+// Teller scheduling algorithm used by the SimulationEngine.
+//
+// The engine owns the customer queue, the tellers and the event queue, and
+// runs the same arrival / completion / assignment steps for every policy.
+// A policy only decides which free teller serves the next waiting customer,
+// and is told about every state change so it can keep its own bookkeeping
+// up to date. A new algorithm is a new implementation of this interface.
+//
+interface SchedulingPolicy
+{
+    // name shown in reports and in the comparison table
+    String getName();
+
+    // prepare for a new run; teller index i has ID i+1 and all tellers are
+    // free. The engine keeps the pool up to date, policies only read it.
+    void init(ServiceArea servicearea, TellerPool tellers);
+
+    // index of the free teller that should serve the next waiting customer,
+    // or -1 if the policy does not assign anybody now
+    int selectTeller(long currentTime);
+
+    // teller tellerIndex starts serving the customer
+    void tellerBusy(int tellerIndex, long customerID, int transactionTime, long arrivalTime, long currentTime);
+
+    // teller tellerIndex finished its transaction and is free
+    void tellerFree(int tellerIndex, long currentTime);
+}
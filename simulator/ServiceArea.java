@@ -1,52 +1,43 @@
 package simulator;
 
-import java.util.*;
-
 //--------------------------------------------------------------------------
 //
-// Define simulation queues in a service area. Queues hold references to Customer
-// and Teller objects
+// Define simulation queues in a service area. Queues hold waiting customers
+// and the indices of tellers in this service area.
 //
 // Customer (FIFO) queue is used to hold waiting customers. If the queue is too long
-// (i.e. >  customerQLimit), customer goes away without entering customer queue
-//
-// There are several tellers in a service area. Use PriorityQueue to
-// hold BUSY tellers and FIFO queue to hold FREE tellers,
-// i.e. a teller that is FREE for the longest time should start be used first.
-//
-// To handle teller in PriorityQueue, we need to define comparator
-// for comparing 2 teller objects. Here is a constructor from Java API:
-//
-// 	PriorityQueue(int initialCapacity, Comparator<? super E> comparator)
+// (i.e. >  customerQLimit), customer goes away without entering customer queue.
+// It is a growable ring buffer of primitive customer records, so a large limit
+// does not allocate up front and the engine queues customers without objects.
 //
-// For priority queue, the default compare function is "natural ordering"
-// i.e. for numbers, minimum value is returned first
+// There are several tellers in a service area, stored once in an array and
+// referred to by index. A min-heap of indices keyed on the end busy interval
+// time holds BUSY tellers, i.e. smallest end busy interval time first, and a
+// FIFO ring of indices holds FREE tellers, i.e. a teller that is FREE for the
+// longest time should start be used first. Both are allocated once for the
+// number of tellers and never allocate afterwards.
 //
-// User can define own comparator class for PriorityQueue.
-// For teller objects, we like to have smallest end busy interval time first.
+// The tellers array is the registry of the tellers of a run: the engine
+// serves customers with these Teller objects and every Teller keeps its own
+// statistics, so getTeller() gives them directly. The free and busy teller
+// queues only order the tellers; the Greedy policy keeps them up to date.
 //
-// The following class defines compare() for two tellers :
-
-class CompareTeller implements Comparator<Teller>
-{
-    @Override
-    public int compare(Teller o1, Teller o2)
-    {
-        return o1.getEndBusyIntervalTime() - o2.getEndBusyIntervalTime();
-    }
-}
-
 class ServiceArea
 {
     // Private data fields:
 
-    // define one priority queue
-    private PriorityQueue<Teller> busyTellerQ;
+    // all tellers, tellers[i] has ID startTellerID + i
+    private Teller[] tellers;
+    private int startTellerID;
 
-    // define two FIFO queues
-    private Queue<Customer> customerQ;
-    private Queue<Teller> freeTellerQ;
+    // busy tellers by end busy interval time
+    private IndexedMinHeap busyTellerQ;
 
+    // free tellers in FIFO order: a ring of teller indices
+    private int[] freeTellerQ;
+    private int freeHead, numFree;
+
+    private CustomerQueue customerQ;
     private int customerQLimit;
 
     public ServiceArea()
@@ -56,33 +47,37 @@ class ServiceArea
 
     public ServiceArea(int numTellers, int customerQlimit, int startTellerID)
     {
-        // use ArrayDeque to construct FIFO queue objects
-        customerQ = new ArrayDeque<Customer>(customerQlimit);
-        freeTellerQ = new ArrayDeque<Teller>(numTellers);
-
-        // construct PriorityQueue object
-        // overide compare() in Comparator to compare Teller objects
-        busyTellerQ = new PriorityQueue<Teller>( numTellers, new CompareTeller());
+        customerQ = new CustomerQueue();
+        freeTellerQ = new int[numTellers];
+        busyTellerQ = new IndexedMinHeap(numTellers);
 
         // initialize customerQlimit
         customerQLimit = customerQlimit;
 
         // Construct Teller objects and insert into FreeTellerQ
+        this.startTellerID = startTellerID;
+        tellers = new Teller[numTellers];
         for (int i = 0; i < numTellers; i++) {
-            insertFreeTellerQ( new Teller(startTellerID++) );
+            tellers[i] = new Teller(startTellerID + i);
+            insertFreeTellerQ(tellers[i]);
         }
     }
 
     public Teller removeFreeTellerQ()
     {
         // remove and return a free teller
-        return freeTellerQ.poll();
+        if (numFree == 0) return null;
+        Teller teller = tellers[freeTellerQ[freeHead]];
+        freeHead = (freeHead + 1) % freeTellerQ.length;
+        numFree--;
+        return teller;
     }
 
     public Teller removeBusyTellerQ()
     {
         // remove and return a busy teller
-        return busyTellerQ.poll();
+        if (busyTellerQ.isEmpty()) return null;
+        return tellers[busyTellerQ.poll()];
     }
 
     public Customer removeCustomerQ()
@@ -94,13 +89,14 @@ class ServiceArea
     public void insertFreeTellerQ(Teller teller)
     {
         // insert a free teller
-        freeTellerQ.add(teller);
+        freeTellerQ[(freeHead + numFree) % freeTellerQ.length] = indexOf(teller);
+        numFree++;
     }
 
     public void insertBusyTellerQ(Teller teller)
     {
         // insert a busy teller
-        busyTellerQ.add(teller);
+        busyTellerQ.insert(indexOf(teller), teller.getEndBusyIntervalTime());
     }
 
     public void insertCustomerQ(Customer customer)
@@ -109,10 +105,16 @@ class ServiceArea
         customerQ.add(customer);
     }
 
+    public CustomerQueue getCustomerQ()
+    {
+        // the queue itself, for the allocation-free add and peek methods
+        return customerQ;
+    }
+
     public boolean emptyFreeTellerQ()
     {
         // is freeTellerQ empty?
-        return freeTellerQ.isEmpty();
+        return numFree == 0;
     }
 
     public boolean emptyBusyTellerQ()
@@ -130,7 +132,7 @@ class ServiceArea
     public int numFreeTellers()
     {
         // get number of free tellers
-        return freeTellerQ.size();
+        return numFree;
     }
 
     public int numBusyTellers()
@@ -149,13 +151,44 @@ class ServiceArea
     {
         // get front of busy tellers
         // "retrieve" but not "remove"
-        return busyTellerQ.peek();
+        return busyTellerQ.isEmpty() ? null : tellers[busyTellerQ.peekIndex()];
+    }
+
+    public Teller getFrontFreeTellerQ()
+    {
+        // get front of free tellers
+        // "retrieve" but not "remove"
+        return numFree == 0 ? null : tellers[freeTellerQ[freeHead]];
     }
 
     public boolean isCustomerQTooLong()
     {
         // is customerQ too long?
-        return customerQ.size() == customerQLimit;
+        return customerQ.size() >= customerQLimit;
+    }
+
+    // How many of arriving customers, coming one after the other, find the
+    // customer queue short enough to enter it: the first ones up to the
+    // limit, the rest go away. One check for the whole batch.
+    public int numAdmitted(int arriving)
+    {
+        return Math.max(0, Math.min(arriving, customerQLimit - customerQ.size()));
+    }
+
+    public Teller getTeller(int index)
+    {
+        // teller with ID startTellerID + index
+        return tellers[index];
+    }
+
+    public int numTellers()
+    {
+        return tellers.length;
+    }
+
+    private int indexOf(Teller teller)
+    {
+        return teller.getTellerID() - startTellerID;
     }
 
     public void printStatistics()
@@ -181,7 +214,7 @@ class ServiceArea
         System.out.println("Remove customer:"+sc.removeCustomerQ());
         System.out.println("Remove customer:"+sc.removeCustomerQ());
 
-        System.out.println(""+sc.freeTellerQ);
+        System.out.println("Front free teller:"+sc.getFrontFreeTellerQ());
         Teller p1=sc.removeFreeTellerQ();
         Teller p2=sc.removeFreeTellerQ();
         Teller p3=sc.removeFreeTellerQ();
@@ -199,7 +232,7 @@ class ServiceArea
         sc.insertBusyTellerQ(p2);
         sc.insertBusyTellerQ(p3);
         sc.insertBusyTellerQ(p4);
-        System.out.println(""+sc.busyTellerQ);
+        System.out.println("Front busy teller:"+sc.getFrontBusyTellerQ());
         p1=sc.removeBusyTellerQ();
         p2=sc.removeBusyTellerQ();
         p3=sc.removeBusyTellerQ();
@@ -0,0 +1,59 @@
+package simulator;
+
+// A service level agreement on simulation results, e.g. "p95 wait <= 5 units
+// and go-away rate <= 2%". Each target is an upper bound on the mean of a
+// Metric over replications.
+class ServiceLevel
+{
+    // outcome of checking replications against the targets
+    enum Verdict { MET, MISSED, UNDECIDED }
+
+    private final double maxP95WaitTime;
+    private final double maxGoAwayPercent;
+
+    public ServiceLevel(double maxP95WaitTime, double maxGoAwayPercent)
+    {
+        this.maxP95WaitTime = maxP95WaitTime;
+        this.maxGoAwayPercent = maxGoAwayPercent;
+    }
+
+    // judge on the means only
+    public boolean isMetBy(ReplicationRunner runner)
+    {
+        return runner.getSummary(Metric.P95_WAIT_TIME).getMean() <= maxP95WaitTime
+            && runner.getSummary(Metric.GO_AWAY_RATE).getMean() <= maxGoAwayPercent;
+    }
+
+    // judge on the 95% confidence intervals: MET if every interval is below
+    // its target, MISSED if any interval is above it, UNDECIDED otherwise
+    public Verdict judge(ReplicationRunner runner)
+    {
+        MetricSummary p95 = runner.getSummary(Metric.P95_WAIT_TIME);
+        MetricSummary goAway = runner.getSummary(Metric.GO_AWAY_RATE);
+        if (p95.getLower() > maxP95WaitTime || goAway.getLower() > maxGoAwayPercent) {
+            return Verdict.MISSED;
+        }
+        if (p95.getUpper() <= maxP95WaitTime && goAway.getUpper() <= maxGoAwayPercent) {
+            return Verdict.MET;
+        }
+        return Verdict.UNDECIDED;
+    }
+
+    // accessor methods
+
+    public double getMaxP95WaitTime()
+    {
+        return maxP95WaitTime;
+    }
+
+    public double getMaxGoAwayPercent()
+    {
+        return maxGoAwayPercent;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("p95 wait <= %.1f units and go-away rate <= %.1f%%", maxP95WaitTime, maxGoAwayPercent);
+    }
+}
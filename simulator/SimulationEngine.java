@@ -0,0 +1,266 @@
+package simulator;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+//--------------------------------------------------------------------------
+//
+// Next-event simulation kernel shared by all scheduling algorithms.
+//
+// The original loops advanced currentTime one unit at a time and ran the
+// arrival, completion and assignment steps in every unit, even when nothing
+// happened for a long stretch. This engine keeps an EventQueue of arrivals,
+// teller completions and the end of the run, and jumps straight from one
+// event time to the next. Within one time unit the steps run in the same
+// order as before:
+//
+//      Step 1: new customers arrive (or not)
+//      Step 2: busy tellers whose transaction ends now become free
+//      Step 3: free tellers serve waiting customers
+//
+// Which free teller serves a waiting customer is decided by a
+// SchedulingPolicy; everything else is the same for every algorithm.
+// Logging and statistics are SimulationObservers of the run.
+//
+// Queue length and number of busy tellers were sampled once per time unit.
+// Both are constant between two event times, so observers get them for a
+// whole quiet stretch at once. A run gives the same statistics as the tick
+// loop for the same customer data, at a cost proportional to the number of
+// events instead of the simulation length.
+//
+// Times and customer IDs are longs. The only limits left are the ones of the
+// packed event: a teller index must fit the event payload and every event
+// time, including a completion after the end of the run, the event time.
+//
+class SimulationEngine
+{
+    // largest run the event encoding can hold
+    static final int MAX_TELLERS = EventQueue.MAX_PAYLOAD + 1;
+    static final long MAX_SIMULATION_TIME = EventQueue.MAX_TIME - Integer.MAX_VALUE;
+
+    // input parameters
+    private final int numTellers;
+    private final long simulationTime;
+    private final SchedulingPolicy policy;
+    private final ArrivalSource arrivals;
+    private final CompositeObserver observer;
+
+    // simulation state
+    private final ServiceArea servicearea; // customer queue
+    private final CustomerQueue customerQ; // the queue of servicearea
+    private final Teller[] tellers;        // tellers of servicearea, tellers[i] has ID i+1
+    private final TellerPool pool;         // dispatch state of the tellers
+    private final EventQueue events;
+    private long customerIDCounter;
+    private int[] batchTransactionTimes = new int[16];
+    private long sampledTime; // next time unit to report to observers
+    private long numEvents;   // events processed, for benchmarks
+
+    // cooperative cancellation, checked every CANCEL_CHECK_STEPS time steps
+    private static final int CANCEL_CHECK_STEPS = 1024;
+    private BooleanSupplier cancelCheck = () -> false;
+    private boolean cancelled;
+
+    public SimulationEngine(int numTellers, int customerQLimit, long simulationTime,
+                            SchedulingPolicy policy, ArrivalSource arrivals)
+    {
+        if (numTellers < 1 || numTellers > MAX_TELLERS) {
+            throw new IllegalArgumentException("Number of tellers must be 1.." + MAX_TELLERS + ": " + numTellers);
+        }
+        if (customerQLimit < 0) {
+            throw new IllegalArgumentException("Customer queue limit must not be negative: " + customerQLimit);
+        }
+        if (simulationTime < 0 || simulationTime > MAX_SIMULATION_TIME) {
+            throw new IllegalArgumentException("Simulation time must be 0.." + MAX_SIMULATION_TIME + ": " + simulationTime);
+        }
+        this.numTellers = numTellers;
+        this.simulationTime = simulationTime;
+        this.policy = policy;
+        this.arrivals = arrivals;
+        this.observer = new CompositeObserver();
+
+        servicearea = new ServiceArea(numTellers, customerQLimit, 1);
+        customerQ = servicearea.getCustomerQ();
+        tellers = new Teller[numTellers];
+        for (int i = 0; i < numTellers; i++) {
+            tellers[i] = servicearea.getTeller(i);
+        }
+        pool = new TellerPool(numTellers);
+        events = new EventQueue(numTellers + 2);
+        policy.init(servicearea, pool);
+    }
+
+    public void addObserver(SimulationObserver o)
+    {
+        observer.add(o);
+    }
+
+    public void run()
+    {
+        // Step 0: schedule the first arrival and the end of the run
+        events.add(simulationTime, EventQueue.END, 0);
+        scheduleNextArrival(0);
+
+        long steps = 0;
+        while (EventQueue.typeOf(events.peek()) != EventQueue.END) {
+            if (++steps % CANCEL_CHECK_STEPS == 0 && cancelCheck.getAsBoolean()) {
+                cancelled = true;
+                break;
+            }
+            long event = events.peek();
+            long currentTime = EventQueue.timeOf(event);
+
+            // samples for the quiet time units since the last event, and this one
+            sampleUntil(currentTime + 1);
+            observer.timeStep(currentTime, servicearea.numWaitingCustomers(), pool.numBusy());
+
+            // Step 1: any new customer enters the bank?
+            if (EventQueue.typeOf(event) == EventQueue.ARRIVAL) {
+                events.poll();
+                numEvents++;
+                customerArrives(currentTime);
+                scheduleNextArrival(currentTime + 1);
+            } else {
+                observer.noNewCustomer(currentTime);
+            }
+
+            // Step 2: free busy tellers
+            while (EventQueue.timeOf(events.peek()) == currentTime) {
+                tellerDone(EventQueue.payloadOf(events.poll()), currentTime);
+                numEvents++;
+            }
+
+            // Step 3: get free tellers to serve waiting customers
+            assignTellers(currentTime);
+        } // end simulation loop
+
+        // end of run: remaining samples and open teller intervals; a
+        // cancelled run ends after the last time unit it processed
+        long endTime = cancelled ? sampledTime : simulationTime;
+        sampleUntil(endTime);
+        for (int i = 0; i < numTellers; i++) {
+            tellers[i].setEndIntervalTime(endTime, pool.isBusy(i) ? 1 : 0);
+        }
+        observer.simulationEnded(endTime);
+    }
+
+    private void scheduleNextArrival(long fromTime)
+    {
+        long arrivalTime = arrivals.nextArrivalTime(fromTime, simulationTime);
+        if (arrivalTime < simulationTime) {
+            events.add(arrivalTime, EventQueue.ARRIVAL, 0);
+        }
+    }
+
+    private void customerArrives(long currentTime)
+    {
+        // Step 1.1: setup customer data of the batch arriving now
+        int batchSize = arrivals.getBatchSize();
+        if (batchSize > batchTransactionTimes.length) {
+            batchTransactionTimes = Arrays.copyOf(batchTransactionTimes,
+                    Math.max(batchSize, 2 * batchTransactionTimes.length));
+        }
+
+        // Step 1.2: check customer waiting queue too long? once for the
+        // batch: the first customers fill the queue, the rest go away
+        int admitted = servicearea.numAdmitted(batchSize);
+        long firstCustomerID = customerIDCounter + 1;
+        for (int i = 0; i < batchSize; i++) {
+            customerIDCounter++;
+            int transactionTime = arrivals.getTransactionTime(i);
+            batchTransactionTimes[i] = transactionTime;
+            observer.customerArrives(currentTime, customerIDCounter, transactionTime);
+            if (i < admitted) {
+                observer.customerWaits(currentTime, customerIDCounter);
+            } else {
+                observer.customerGoesAway(currentTime, customerIDCounter);
+            }
+        }
+        customerQ.addAll(firstCustomerID, batchTransactionTimes, admitted, currentTime);
+    }
+
+    private void tellerDone(int tellerIndex, long currentTime)
+    {
+        Teller teller = tellers[tellerIndex];
+        long customerID = teller.busyToFree();
+        pool.setFree(tellerIndex);
+        policy.tellerFree(tellerIndex, currentTime);
+        observer.customerDone(currentTime, customerID, teller.getTellerID());
+    }
+
+    private void assignTellers(long currentTime)
+    {
+        while (!customerQ.isEmpty()) {
+            int tellerIndex = policy.selectTeller(currentTime);
+            if (tellerIndex < 0) break;
+
+            long customerID = customerQ.peekCustomerID();
+            int transactionTime = customerQ.peekTransactionTime();
+            long arrivalTime = customerQ.peekArrivalTime();
+            customerQ.remove();
+            Teller teller = tellers[tellerIndex];
+            teller.freeToBusy(customerID, transactionTime, arrivalTime, currentTime);
+            pool.setBusy(tellerIndex, currentTime, transactionTime);
+            events.add(pool.getEndBusyIntervalTime(tellerIndex), EventQueue.COMPLETION, tellerIndex);
+            policy.tellerBusy(tellerIndex, customerID, transactionTime, arrivalTime, currentTime);
+
+            observer.customerServed(currentTime, customerID, teller.getTellerID(),
+                    transactionTime, currentTime - arrivalTime);
+        }
+    }
+
+    private void sampleUntil(long endTime)
+    {
+        // report time units [sampledTime, endTime), none of which has an
+        // event before its sample is taken
+        if (endTime <= sampledTime) return;
+        observer.timeAdvanced(sampledTime, endTime, servicearea.numWaitingCustomers(), pool.numBusy());
+        sampledTime = endTime;
+    }
+
+    // Stop the run early once cancelled returns true. It is polled from the
+    // simulation thread, so it may read a flag set by any other thread.
+    public void setCancelCheck(BooleanSupplier cancelled)
+    {
+        this.cancelCheck = cancelled;
+    }
+
+    // accessor methods
+
+    public boolean isCancelled()
+    {
+        return cancelled;
+    }
+
+    public SchedulingPolicy getPolicy()
+    {
+        return policy;
+    }
+
+    public List<Teller> getTellers()
+    {
+        return Collections.unmodifiableList(Arrays.asList(tellers));
+    }
+
+    public long getNumEvents()
+    {
+        return numEvents;
+    }
+
+    public int numWaitingCustomers()
+    {
+        return servicearea.numWaitingCustomers();
+    }
+
+    public int numBusyTellers()
+    {
+        return pool.numBusy();
+    }
+
+    public int numFreeTellers()
+    {
+        return pool.numFree();
+    }
+}
@@ -0,0 +1,42 @@
+package simulator;
+
+//--------------------------------------------------------------------------
+//
+// Destination of the simulation log, filtered by LogLevel.
+//
+// Callers test isEnabled() before building a line, or do not attach a log
+// observer at all, so a sink at OFF costs nothing per event. Lines are
+// given without a line terminator; a line may itself contain line breaks.
+//
+interface SimulationLogSink extends AutoCloseable
+{
+    // discards everything
+    SimulationLogSink OFF = new SimulationLogSink()
+    {
+        @Override public LogLevel getLevel() { return LogLevel.OFF; }
+        @Override public void log(LogLevel level, String line) {}
+        @Override public void flush() {}
+        @Override public void close() {}
+    };
+
+    LogLevel getLevel();
+
+    default boolean isEnabled(LogLevel level)
+    {
+        return level != LogLevel.OFF && level.compareTo(getLevel()) <= 0;
+    }
+
+    // write one line if level is enabled
+    void log(LogLevel level, String line);
+
+    default void printf(LogLevel level, String format, Object... args)
+    {
+        if (isEnabled(level)) log(level, String.format(format, args));
+    }
+
+    // write out everything logged so far
+    void flush();
+
+    @Override
+    void close();
+}
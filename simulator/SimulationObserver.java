@@ -0,0 +1,39 @@
+package simulator;
+
+//--------------------------------------------------------------------------
+//
+// Receives the events of a simulation run as the engine processes them.
+// Logging, statistics and the JavaFX log are all observers of the engine.
+//
+// The engine only visits time units in which something happens, so
+// timeStep() is called once per such time unit, before its events.
+// timeAdvanced() covers every time unit of the run exactly once, in stretches
+// over which the queue length and the number of busy tellers are constant.
+// All methods have empty defaults so an observer only overrides what it needs.
+//
+interface SimulationObserver
+{
+    // time units [fromTime, toTime) are sampled with these counts
+    default void timeAdvanced(long fromTime, long toTime, int waitingCustomers, int busyTellers) {}
+
+    // a time unit with at least one event starts; counts are before its events
+    default void timeStep(long currentTime, int waitingCustomers, int busyTellers) {}
+
+    // no customer arrives in a time unit that has other events
+    default void noNewCustomer(long currentTime) {}
+
+    default void customerArrives(long currentTime, long customerID, int transactionTime) {}
+
+    // the customer queue is full and the arriving customer leaves
+    default void customerGoesAway(long currentTime, long customerID) {}
+
+    default void customerWaits(long currentTime, long customerID) {}
+
+    // a customer finishes and the teller becomes free
+    default void customerDone(long currentTime, long customerID, int tellerID) {}
+
+    // a waiting customer advances to a teller
+    default void customerServed(long currentTime, long customerID, int tellerID, int transactionTime, long waitTime) {}
+
+    default void simulationEnded(long endTime) {}
+}
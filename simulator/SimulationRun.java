@@ -0,0 +1,79 @@
+package simulator;
+
+import java.util.concurrent.Callable;
+
+//--------------------------------------------------------------------------
+//
+// One simulation run of one scheduling algorithm, with its own state.
+//
+// A run shares no mutable state with any other run: it is given its own
+// ArrivalSource, and the engine, tellers, queues and statistics are created
+// for it alone. Runs of different algorithms can therefore execute on
+// different threads at the same time, as comparison mode does; each run is
+// still single-threaded inside. Observers are added before the run starts
+// and are called on the thread that executes it.
+//
+class SimulationRun implements Callable<SimulationRun>
+{
+    private final SchedulingPolicy policy;
+    private final SimulationEngine engine;
+    private final SimulationStatistics stats;
+    private TimeSeriesObserver timeSeries;  // null unless recorded
+
+    public SimulationRun(int numTellers, int customerQLimit, long simulationTime,
+                         SchedulingPolicy policy, ArrivalSource arrivals)
+    {
+        this.policy = policy;
+        engine = new SimulationEngine(numTellers, customerQLimit, simulationTime, policy, arrivals);
+        stats = new SimulationStatistics(numTellers);
+        engine.addObserver(stats);
+    }
+
+    public void addObserver(SimulationObserver o)
+    {
+        engine.addObserver(o);
+    }
+
+    // also record queue length and busy tellers over time
+    public void recordTimeSeries()
+    {
+        if (timeSeries == null) {
+            timeSeries = new TimeSeriesObserver();
+            engine.addObserver(timeSeries);
+        }
+    }
+
+    @Override
+    public SimulationRun call()
+    {
+        engine.run();
+        return this;
+    }
+
+    public AlgorithmResult toAlgorithmResult()
+    {
+        return stats.toAlgorithmResult(policy.getName());
+    }
+
+    // accessor methods
+
+    public String getAlgorithmName()
+    {
+        return policy.getName();
+    }
+
+    public SimulationEngine getEngine()
+    {
+        return engine;
+    }
+
+    public SimulationStatistics getStatistics()
+    {
+        return stats;
+    }
+
+    public TimeSeriesObserver getTimeSeries()
+    {
+        return timeSeries;
+    }
+}
@@ -0,0 +1,199 @@
+package simulator;
+
+//--------------------------------------------------------------------------
+//
+// Statistics of one simulation run, collected as an observer of the engine.
+//
+// Customer counts and wait times are updated per customer event. Queue
+// length and teller busy/idle time were sampled once per time unit; the
+// engine reports them per stretch of constant state through timeAdvanced(),
+// so each stretch is added in one step.
+//
+// Nothing here grows with the length of the run: wait times and queue
+// lengths go into RunningStats (mean, variance, min, max) and wait times
+// also into a LogLinearHistogram for the p50/p95/p99 percentiles.
+//
+class SimulationStatistics implements SimulationObserver
+{
+    private final int numTellers;
+
+    // statistical data
+    private long numArrivals, numGoaway, numServed, totalWaitingTime;
+
+    // enhanced statistics for detailed analysis
+    private final RunningStats waitTimes;
+    private final LogLinearHistogram waitTimeHistogram;
+    private final RunningStats queueLengths; // one sample per time unit
+    private long totalTellerBusyTime;
+    private long totalTellerIdleTime;
+    private long totalQueueTime;
+
+    public SimulationStatistics(int numTellers)
+    {
+        this.numTellers = numTellers;
+        waitTimes = new RunningStats();
+        waitTimeHistogram = new LogLinearHistogram();
+        queueLengths = new RunningStats();
+    }
+
+    @Override
+    public void timeAdvanced(long fromTime, long toTime, int waitingCustomers, int busyTellers)
+    {
+        long units = toTime - fromTime;
+
+        // Track queue length, one sample per time unit
+        queueLengths.add(waitingCustomers, units);
+
+        // Track total queue time and the current run of waiting time
+        if (waitingCustomers > 0) {
+            totalQueueTime += units;
+            totalWaitingTime += units;
+        } else {
+            totalWaitingTime = 0;
+        }
+
+        // Track total busy and idle time
+        totalTellerBusyTime += busyTellers * units;
+        totalTellerIdleTime += (numTellers - busyTellers) * units;
+    }
+
+    @Override
+    public void customerArrives(long currentTime, long customerID, int transactionTime)
+    {
+        numArrivals++;
+    }
+
+    @Override
+    public void customerGoesAway(long currentTime, long customerID)
+    {
+        numGoaway++;
+    }
+
+    @Override
+    public void customerServed(long currentTime, long customerID, int tellerID, int transactionTime, long waitTime)
+    {
+        numServed++;
+        waitTimes.add(waitTime);
+        waitTimeHistogram.record(waitTime);
+    }
+
+    // derived metrics
+
+    public double getAverageWaitTime()
+    {
+        return waitTimes.getMean();
+    }
+
+    public double getWaitTimeStdDev()
+    {
+        return waitTimes.getStdDev();
+    }
+
+    public long getWaitTimePercentile(double percentile)
+    {
+        return waitTimeHistogram.getValueAtPercentile(percentile);
+    }
+
+    public double getAverageTellerUtilization()
+    {
+        long totalTellerTime = totalTellerBusyTime + totalTellerIdleTime;
+        return totalTellerTime == 0 ? 0.0 :
+            (double)totalTellerBusyTime / totalTellerTime * 100;
+    }
+
+    public double getQueueEfficiency()
+    {
+        return numArrivals == 0 ? 0.0 : (double)numServed / numArrivals * 100;
+    }
+
+    public double getAverageServiceTime()
+    {
+        return numServed > 0 ? (double)totalTellerBusyTime / numServed : 0.0;
+    }
+
+    public double getAverageQueueLength()
+    {
+        return queueLengths.getMean();
+    }
+
+    public double getQueueLengthStdDev()
+    {
+        return queueLengths.getStdDev();
+    }
+
+    public AlgorithmResult toAlgorithmResult(String algorithmName)
+    {
+        AlgorithmResult result = new AlgorithmResult(algorithmName);
+        result.setAvgWaitTime(getAverageWaitTime());
+        result.setMaxWaitTime(getMaxWaitTime());
+        result.setP50WaitTime(getWaitTimePercentile(50));
+        result.setP95WaitTime(getWaitTimePercentile(95));
+        result.setP99WaitTime(getWaitTimePercentile(99));
+        result.setAvgTellerUtilization(getAverageTellerUtilization());
+        result.setQueueEfficiency(getQueueEfficiency());
+        result.setTotalCustomers(numArrivals);
+        result.setCustomersServed(numServed);
+        result.setCustomersGoneAway(numGoaway);
+        result.setAvgServiceTime(getAverageServiceTime());
+        result.setPeakQueueLength(getPeakQueueLength());
+        result.setAvgQueueLength(getAverageQueueLength());
+        return result;
+    }
+
+    // accessor methods
+
+    public long getTotalArrivals()
+    {
+        return numArrivals;
+    }
+
+    public long getNumGoaway()
+    {
+        return numGoaway;
+    }
+
+    public long getNumServed()
+    {
+        return numServed;
+    }
+
+    public long getTotalWaitingTime()
+    {
+        return totalWaitingTime;
+    }
+
+    public long getMaxWaitTime()
+    {
+        return (long) waitTimes.getMax();
+    }
+
+    public long getTotalTellerBusyTime()
+    {
+        return totalTellerBusyTime;
+    }
+
+    public long getTotalTellerIdleTime()
+    {
+        return totalTellerIdleTime;
+    }
+
+    public int getPeakQueueLength()
+    {
+        return (int) queueLengths.getMax();
+    }
+
+    public int getMinQueueLength()
+    {
+        return (int) queueLengths.getMin();
+    }
+
+    public long getTotalQueueTime()
+    {
+        return totalQueueTime;
+    }
+
+    public long getSampledTime()
+    {
+        return queueLengths.getCount();
+    }
+}
@@ -0,0 +1,198 @@
+package simulator;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+//--------------------------------------------------------------------------
+//
+// Finds the minimum number of tellers that meets a ServiceLevel, per
+// scheduling algorithm, without simulating the whole grid of teller counts.
+//
+// More tellers never make waits or go-aways worse, so the SLA is met from
+// some teller count on. The search starts at the ErlangEstimate of that
+// count, which takes microseconds, and gallops away from it (1, 2, 4, ...
+// tellers up while the SLA is missed, down while it is met), then bisects
+// between the last count that missed and the first that met it. A good
+// estimate settles the search in two or three points; a poor one still
+// costs only O(log n). Counts too small to keep up with the customers who
+// must be served are known to miss and are never simulated.
+//
+// Every point is a replicated Scenario. Replications stop early once the
+// confidence intervals are clearly on one side of the targets, so points
+// far from the boundary cost only the minimum number of replications, and
+// counts below a missed point or above a met point are never simulated.
+// All points share one seed (common random numbers) and are cached per
+// algorithm and teller count, so a later search reuses and extends them.
+// The algorithms are searched in parallel on a ForkJoinPool.
+//
+class StaffingOptimizer
+{
+    private final Scenario scenario;   // numTellers and algorithm are searched
+    private final ServiceLevel sla;
+    private final long seed;
+    private final ForkJoinPool pool;
+    private int minReplications = 5, maxReplications = 50;
+    private int maxTellers = 1024;
+
+    private final Map<String, ReplicationRunner> cache = new ConcurrentHashMap<>();
+    private final AtomicInteger cacheHits = new AtomicInteger();
+
+    public StaffingOptimizer(Scenario scenario, ServiceLevel sla, long seed)
+    {
+        this(scenario, sla, seed, ForkJoinPool.commonPool());
+    }
+
+    public StaffingOptimizer(Scenario scenario, ServiceLevel sla, long seed, ForkJoinPool pool)
+    {
+        this.scenario = scenario;
+        this.sla = sla;
+        this.seed = seed;
+        this.pool = pool;
+    }
+
+    public void setReplications(int minReplications, int maxReplications)
+    {
+        if (minReplications < 2 || maxReplications < minReplications) {
+            throw new IllegalArgumentException("Need 2 <= minReplications <= maxReplications");
+        }
+        this.minReplications = minReplications;
+        this.maxReplications = maxReplications;
+    }
+
+    public void setMaxTellers(int maxTellers)
+    {
+        if (maxTellers < 1 || maxTellers > SimulationEngine.MAX_TELLERS) {
+            throw new IllegalArgumentException("Maximum tellers must be 1.." + SimulationEngine.MAX_TELLERS);
+        }
+        this.maxTellers = maxTellers;
+    }
+
+    // minimum tellers per algorithm, -1 if even maxTellers miss the SLA
+    public Map<String, Integer> findMinimumTellers(List<String> algorithms)
+    {
+        List<ForkJoinTask<Integer>> searches = algorithms.stream()
+            .map(algorithm -> pool.submit(() -> findMinimumTellers(algorithm)))
+            .collect(Collectors.toList());
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int i = 0; i < algorithms.size(); i++) {
+            result.put(algorithms.get(i), searches.get(i).join());
+        }
+        return result;
+    }
+
+    public int findMinimumTellers(String algorithm)
+    {
+        // below the capacity bound the go-away target cannot be met
+        double bound = ErlangEstimate.lowerBoundTellers(scenario, sla.getMaxGoAwayPercent());
+        int missed = (int) Math.max(0, Math.min(maxTellers, Math.floor(bound) - 1));
+        if (missed == maxTellers) return -1;
+        int guess = Math.max(missed + 1, ErlangEstimate.estimateMinimumTellers(scenario,
+                sla.getMaxP95WaitTime(), sla.getMaxGoAwayPercent(), maxTellers));
+
+        // galloping from the guess: find a count that misses and one that meets
+        int met;
+        if (meets(algorithm, guess)) {
+            met = guess;
+            for (int step = 1; met - step > missed; step *= 2) {
+                if (!meets(algorithm, met - step)) {
+                    missed = met - step;
+                    break;
+                }
+                met -= step;
+            }
+        } else {
+            missed = guess;
+            for (int step = 1; ; step *= 2) {
+                if (missed == maxTellers) return -1;
+                met = (int) Math.min((long) missed + step, maxTellers);
+                if (meets(algorithm, met)) break;
+                missed = met;
+            }
+        }
+
+        // bisection: missed < answer <= met
+        while (met - missed > 1) {
+            int mid = missed + (met - missed) / 2;
+            if (meets(algorithm, mid)) {
+                met = mid;
+            } else {
+                missed = mid;
+            }
+        }
+        return met;
+    }
+
+    private boolean meets(String algorithm, int numTellers)
+    {
+        ReplicationRunner runner = evaluate(algorithm, numTellers);
+        synchronized (runner) {
+            // add replications until the intervals decide, or the budget is spent
+            int batch = Math.max(pool.getParallelism(), 2);
+            if (runner.getReplications() < minReplications) {
+                runner.run(minReplications - runner.getReplications());
+            }
+            while (sla.judge(runner) == ServiceLevel.Verdict.UNDECIDED
+                    && runner.getReplications() < maxReplications) {
+                runner.run(Math.min(batch, maxReplications - runner.getReplications()));
+            }
+            ServiceLevel.Verdict verdict = sla.judge(runner);
+            return verdict == ServiceLevel.Verdict.UNDECIDED ? sla.isMetBy(runner)
+                    : verdict == ServiceLevel.Verdict.MET;
+        }
+    }
+
+    // cached replications of one point
+    public ReplicationRunner evaluate(String algorithm, int numTellers)
+    {
+        String key = algorithm + "/" + numTellers;
+        ReplicationRunner runner = cache.get(key);
+        if (runner != null) {
+            cacheHits.incrementAndGet();
+            return runner;
+        }
+        runner = new ReplicationRunner(scenario.withAlgorithm(algorithm).withNumTellers(numTellers), seed, pool);
+        ReplicationRunner existing = cache.putIfAbsent(key, runner);
+        return existing != null ? existing : runner;
+    }
+
+    // accessor methods
+
+    public int getEvaluatedPoints()
+    {
+        return cache.size();
+    }
+
+    public int getCacheHits()
+    {
+        return cacheHits.get();
+    }
+
+    public int getTotalReplications()
+    {
+        return cache.values().stream().mapToInt(ReplicationRunner::getReplications).sum();
+    }
+
+    public static void main(String[] args)
+    {
+        // quick check: minimum staffing for p95 wait <= 5 and go-away <= 2%
+        ServiceLevel sla = new ServiceLevel(5, 2);
+        List<String> algorithms = List.of("Greedy", "Round Robin", "Least Work Left");
+        for (int chances : new int[] { 40, 60, 80 }) {
+            for (int maxTrans : new int[] { 20, 30, 50 }) {
+                Scenario scenario = new Scenario(1, 20, 10000, chances, maxTrans, algorithms.get(0));
+                StaffingOptimizer optimizer = new StaffingOptimizer(scenario, sla, 42);
+                long start = System.nanoTime();
+                Map<String, Integer> tellers = optimizer.findMinimumTellers(algorithms);
+                System.out.printf("arrival %d%%, max transaction %d: %s  (%d points, %d replications, %.0f ms)\n",
+                        chances, maxTrans, tellers, optimizer.getEvaluatedPoints(),
+                        optimizer.getTotalReplications(), (System.nanoTime() - start) / 1e6);
+            }
+        }
+    }
+}
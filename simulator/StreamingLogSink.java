@@ -0,0 +1,170 @@
+package simulator;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+//--------------------------------------------------------------------------
+//
+// Bounded log for a viewer such as the JavaFX UI, fed while the run is
+// going on.
+//
+// Memory does not grow with the length of the run:
+//
+//      - the last tailLines lines are kept in a ring, for the final view;
+//      - lines are grouped into chunks of CHUNK_LINES and offered to a
+//        bounded queue the viewer drains at its own pace. When the viewer
+//        falls behind, chunks are dropped instead of blocking the
+//        simulation; the tail still ends up complete;
+//      - optionally, every line is also written to a gzip file, so the full
+//        log is kept on disk at a fraction of its size.
+//
+// log() is called by the simulation thread; drainChunks() and the tail
+// accessors may be called from any thread.
+//
+class StreamingLogSink implements SimulationLogSink
+{
+    private static final int CHUNK_LINES = 256;
+    private static final int QUEUE_CHUNKS = 64;
+
+    private final LogLevel level;
+
+    // last lines, guarded by this
+    private final String[] tail;
+    private int tailHead, tailSize;
+    private long lineCount, droppedLines;
+
+    // chunks for the viewer
+    private final BlockingQueue<String> chunks = new ArrayBlockingQueue<>(QUEUE_CHUNKS);
+    private final StringBuilder chunk = new StringBuilder();
+    private int chunkLines;
+
+    // full log on disk, or null
+    private final File spillFile;
+    private final Writer spill;
+
+    public StreamingLogSink(LogLevel level, int tailLines)
+    {
+        this(level, tailLines, null);
+    }
+
+    public StreamingLogSink(LogLevel level, int tailLines, File spillFile)
+    {
+        if (tailLines < 1) throw new IllegalArgumentException("Need at least one tail line");
+        this.level = level;
+        this.tail = new String[tailLines];
+        this.spillFile = spillFile;
+        try {
+            spill = spillFile == null ? null : new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(new FileOutputStream(spillFile), 64 * 1024)), 64 * 1024);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public LogLevel getLevel()
+    {
+        return level;
+    }
+
+    @Override
+    public synchronized void log(LogLevel level, String line)
+    {
+        if (!isEnabled(level)) return;
+        lineCount++;
+
+        tail[(tailHead + tailSize) % tail.length] = line;
+        if (tailSize < tail.length) {
+            tailSize++;
+        } else {
+            tailHead = (tailHead + 1) % tail.length;
+        }
+
+        chunk.append(line).append('\n');
+        if (++chunkLines == CHUNK_LINES) publish();
+
+        if (spill != null) {
+            try {
+                spill.write(line);
+                spill.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    private void publish()
+    {
+        // called holding the lock
+        if (!chunks.offer(chunk.toString())) droppedLines += chunkLines;
+        chunk.setLength(0);
+        chunkLines = 0;
+    }
+
+    // hand the chunks published so far to the viewer, oldest first
+    public void drainChunks(Consumer<String> viewer)
+    {
+        for (String c = chunks.poll(); c != null; c = chunks.poll()) {
+            viewer.accept(c);
+        }
+    }
+
+    @Override
+    public synchronized void flush()
+    {
+        if (chunkLines > 0) publish();
+        try {
+            if (spill != null) spill.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        flush();
+        try {
+            if (spill != null) spill.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // accessor methods
+
+    // the last lines, at most tailLines, joined with line breaks
+    public synchronized String getTail()
+    {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < tailSize; i++) {
+            text.append(tail[(tailHead + i) % tail.length]).append('\n');
+        }
+        return text.toString();
+    }
+
+    public synchronized long getLineCount()
+    {
+        return lineCount;
+    }
+
+    // lines not shown live because the viewer fell behind
+    public synchronized long getDroppedLines()
+    {
+        return droppedLines;
+    }
+
+    public File getSpillFile()
+    {
+        return spillFile;
+    }
+}
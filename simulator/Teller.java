@@ -1,26 +1,30 @@
 package simulator;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class Teller
 {
+    // idle and busy period histograms: exact below 32, within 1/16 above
+    private static final int PERIOD_SUB_BUCKET_BITS = 4;
+
     // start time and end time of current interval
-    private int startTime;
-    private int endTime;
+    private long startTime;
+    private long endTime;
 
-    // teller id and current customer which is served by this teller
+    // teller id and current customer which is served by this teller, kept
+    // as primitives so serving a customer creates no object
     private int tellerID;
-    private Customer currentCustomer;
+    private boolean serving;
+    private long customerID;
+    private int transactionTime;
+    private long arrivalTime;
 
     // for keeping statistical data
-    private int totalFreeTime;
-    private int totalBusyTime;
-    private int totalCustomers;
+    private long totalFreeTime;
+    private long totalBusyTime;
+    private long totalCustomers;
 
-    // Enhanced state tracking
-    private List<Integer> idlePeriods;
-    private List<Integer> busyPeriods;
+    // Enhanced state tracking: constant memory however long the run
+    private final LogLinearHistogram idlePeriods;
+    private final LogLinearHistogram busyPeriods;
 
     public Teller()
     {
@@ -30,8 +34,8 @@ public class Teller
     public Teller(int tellerId)
     {
         tellerID = tellerId;
-        idlePeriods = new ArrayList<>();
-        busyPeriods = new ArrayList<>();
+        idlePeriods = new LogLinearHistogram(PERIOD_SUB_BUCKET_BITS);
+        busyPeriods = new LogLinearHistogram(PERIOD_SUB_BUCKET_BITS);
     }
 
     // accessor methods
@@ -43,25 +47,43 @@ public class Teller
 
     public Customer getCustomer()
     {
-        return currentCustomer;
+        // created on demand, null when free
+        return serving ? new Customer(customerID, transactionTime, arrivalTime) : null;
+    }
+
+    public boolean isBusy()
+    {
+        return serving;
     }
 
-    public int getEndBusyIntervalTime()
+    public long getEndBusyIntervalTime()
     {
         // return end time of busy interval
         return endTime;
     }
 
-    public int getTotalBusyTime() {
+    public long getTotalBusyTime() {
         return totalBusyTime;
     }
-    public int getTotalFreeTime() {
+    public long getTotalFreeTime() {
         return totalFreeTime;
     }
+    public LogLinearHistogram getIdlePeriods() {
+        return idlePeriods;
+    }
+    public LogLinearHistogram getBusyPeriods() {
+        return busyPeriods;
+    }
 
     // functions for state transition
 
-    public void freeToBusy (Customer currentCustomer, int currentTime)
+    public void freeToBusy (Customer currentCustomer, long currentTime)
+    {
+        freeToBusy(currentCustomer.getCustomerID(), currentCustomer.getTransactionTime(),
+                currentCustomer.getArrivalTime(), currentTime);
+    }
+
+    public void freeToBusy (long customerID, int transactionTime, long arrivalTime, long currentTime)
     {
         // Main goal : switch from free interval to busy interval
         //
@@ -70,33 +92,37 @@ public class Teller
         //         set startTime, endTime, currentCustomer
         //         update totalCustomers
 
-        int idlePeriod = currentTime - startTime;
-        if (idlePeriod > 0) idlePeriods.add(idlePeriod);
+        long idlePeriod = currentTime - startTime;
+        if (idlePeriod > 0) idlePeriods.record(idlePeriod);
         totalFreeTime += idlePeriod;
         startTime = currentTime;
-        endTime = startTime + currentCustomer.getTransactionTime();
-        this.currentCustomer = currentCustomer;
+        endTime = startTime + transactionTime;
+        serving = true;
+        this.customerID = customerID;
+        this.transactionTime = transactionTime;
+        this.arrivalTime = arrivalTime;
         totalCustomers++;
     }
 
-    public Customer busyToFree ()
+    public long busyToFree ()
     {
         // Main goal : switch from busy interval to free interval
         //
         // steps : update totalBusyTime
         //         set startTime
-        //         return currentCustomer
+        //         clear current customer and return its ID
 
-        int busyPeriod = endTime - startTime;
-        if (busyPeriod > 0) busyPeriods.add(busyPeriod);
+        long busyPeriod = endTime - startTime;
+        if (busyPeriod > 0) busyPeriods.record(busyPeriod);
         totalBusyTime += busyPeriod;
         startTime = endTime;
-        return currentCustomer;
+        serving = false;
+        return customerID;
     }
 
     // need this method at the end of simulation to update teller data
     // intervalType: 0 for FREE interval, 1 for BUSY interval
-    public void setEndIntervalTime (int endsimulationtime, int intervalType)
+    public void setEndIntervalTime (long endsimulationtime, int intervalType)
     {
         // for end of simulation
         // set endTime,
@@ -115,49 +141,45 @@ public class Teller
     // functions for printing statistics :
     
     public void printStatistics ()
+    {
+        printStatistics(new PrintStreamLogSink(System.out, LogLevel.SUMMARY));
+    }
+
+    void printStatistics (SimulationLogSink log)
     {
         // print teller statistics, see project statement
 
-        System.out.println("\t\tTeller ID                : "+tellerID);
-        System.out.println("\t\tTotal free time          : "+totalFreeTime);
-        System.out.println("\t\tTotal busy time          : "+totalBusyTime);
-        System.out.println("\t\tTotal # of customers     : "+totalCustomers);
+        log.log(LogLevel.SUMMARY, "\t\tTeller ID                : "+tellerID);
+        log.log(LogLevel.SUMMARY, "\t\tTotal free time          : "+totalFreeTime);
+        log.log(LogLevel.SUMMARY, "\t\tTotal busy time          : "+totalBusyTime);
+        log.log(LogLevel.SUMMARY, "\t\tTotal # of customers     : "+totalCustomers);
 
         if (totalCustomers > 0) {
-            System.out.format("\t\tAverage transaction time : %.2f\n",
+            log.printf(LogLevel.SUMMARY, "\t\tAverage transaction time : %.2f",
                     (totalBusyTime*1.0)/totalCustomers);
         }
         // Enhanced state tracking
-        if (!idlePeriods.isEmpty()) {
-            System.out.format("\t\tAverage idle period      : %.2f\n", avg(idlePeriods));
-            System.out.println("\t\tMax idle period          : " + max(idlePeriods));
+        if (idlePeriods.getTotalCount() > 0) {
+            log.printf(LogLevel.SUMMARY, "\t\tAverage idle period      : %.2f", idlePeriods.getMean());
+            log.log(LogLevel.SUMMARY, "\t\tMax idle period          : " + idlePeriods.getMax());
+            log.log(LogLevel.SUMMARY, "\t\tIdle period p50/p95      : " + idlePeriods.getValueAtPercentile(50)
+                    + " / " + idlePeriods.getValueAtPercentile(95));
         }
-        if (!busyPeriods.isEmpty()) {
-            System.out.format("\t\tAverage busy period      : %.2f\n", avg(busyPeriods));
-            System.out.println("\t\tMax busy period          : " + max(busyPeriods));
+        if (busyPeriods.getTotalCount() > 0) {
+            log.printf(LogLevel.SUMMARY, "\t\tAverage busy period      : %.2f", busyPeriods.getMean());
+            log.log(LogLevel.SUMMARY, "\t\tMax busy period          : " + busyPeriods.getMax());
+            log.log(LogLevel.SUMMARY, "\t\tBusy period p50/p95      : " + busyPeriods.getValueAtPercentile(50)
+                    + " / " + busyPeriods.getValueAtPercentile(95));
         }
         double utilization = (totalBusyTime + totalFreeTime) > 0 ? (100.0 * totalBusyTime / (totalBusyTime + totalFreeTime)) : 0.0;
-        System.out.format("\t\tUtilization              : %.2f%%\n", utilization);
-        System.out.println();
-    }
-
-    private double avg(List<Integer> list) {
-        if (list.isEmpty()) return 0.0;
-        int sum = 0;
-        for (int v : list) sum += v;
-        return (double) sum / list.size();
-    }
-    private int max(List<Integer> list) {
-        if (list.isEmpty()) return 0;
-        int m = list.get(0);
-        for (int v : list) if (v > m) m = v;
-        return m;
+        log.printf(LogLevel.SUMMARY, "\t\tUtilization              : %.2f%%", utilization);
+        log.log(LogLevel.SUMMARY, "");
     }
 
     @Override
     public String toString()
     {
-        return "Teller:"+tellerID+":"+startTime+"-"+endTime+":Customer:"+currentCustomer;
+        return "Teller:"+tellerID+":"+startTime+"-"+endTime+":Customer:"+getCustomer();
     }
 
     public static void main(String[] args)
@@ -2,71 +2,48 @@ package simulator;
 
 import java.util.*;
 import java.io.*;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
 
 class TellerFlowOptimizer
 {
     // input parameters
     private int numTellers, customerQLimit;
-    private int simulationTime, dataSource;
+    private long simulationTime;
+    private int dataSource;
     private int chancesOfArrival, maxTransactionTime;
 
-    // statistical data
-    private int numGoaway, numServed, totalWaitingTime;
-
-    // enhanced statistics for detailed analysis
-    private int maxWaitTime;
-    private int totalCustomerWaitTime;
-    private int totalTellerBusyTime;
-    private int totalTellerIdleTime;
-    private List<Integer> customerWaitTimes;
-    private List<Integer> tellerUtilization;
-    private int peakQueueLength;
-    private int totalQueueTime;
-    // Real-time metrics
-    private List<Integer> queueLengths;
-    private boolean printStepSummary = true; // Set to false to disable per-step status
+    // parts of the run in the queue trend of the report
+    private static final int TREND_BUCKETS = 10;
+
+    // lines of the log kept for the JavaFX UI
+    static final int UI_LOG_LINES = 5000;
+
+    // results of seeded runWithParams calls; the disk tier is used if the
+    // system property teller.cacheDir names a directory
+    private static final int RESULT_CACHE_SIZE = 64;
+    private static final int RESULT_CACHE_FILES = 1024;
+    static final ResultCache RESULT_CACHE = new ResultCache(RESULT_CACHE_SIZE,
+            System.getProperty("teller.cacheDir") == null ? null : new File(System.getProperty("teller.cacheDir")),
+            RESULT_CACHE_FILES);
+
+    // simulation log, level chosen on the command line
+    private SimulationLogSink log = SimulationLogSink.OFF;
     
     // Algorithm comparison
     private List<AlgorithmResult> algorithmResults;
     private boolean comparisonMode = false;
 
     // internal data
-    private int customerIDCounter;
-    private ServiceArea servicearea; // service area object
-    private Scanner dataFile;        // get customer data from file
+    private File dataFile;           // get customer data from file
+    private TraceFile traceFile;     // or replay a recorded trace
+    private ArrivalProfile profile;  // or schedule customers by a time-varying profile
+    private BatchSizeDistribution batchSizes;  // or let customers arrive in batches
     private Random dataRandom;       // get customer data using random function
-    
-    // Store actual teller objects for accurate final statistics
-    private List<Teller> simulationTellers;
-
-    // most recent customer arrival info, see getCustomerData()
-    private boolean anyNewArrival;
-    private int transactionTime;
 
     // initialize data fields
     private TellerFlowOptimizer()
     {
-        numGoaway = 0;
-        numServed = 0;
-        totalWaitingTime = 0;
-        customerIDCounter = 0;
-        
-        // Initialize enhanced statistics
-        maxWaitTime = 0;
-        totalCustomerWaitTime = 0;
-        totalTellerBusyTime = 0;
-        totalTellerIdleTime = 0;
-        customerWaitTimes = new ArrayList<>();
-        tellerUtilization = new ArrayList<>();
-        peakQueueLength = 0;
-        totalQueueTime = 0;
-        
-        // Initialize teller storage
-        simulationTellers = new ArrayList<>();
-        
-        // Real-time metrics
-        queueLengths = new ArrayList<>();
-        
         // Algorithm comparison
         algorithmResults = new ArrayList<>();
     }
@@ -80,9 +57,9 @@ class TellerFlowOptimizer
         System.out.println("\n\t***  Get Simulation Parameters  ***\n");
 
         do {
-            System.out.print("Enter simulation time (max is 10000): ");
-            simulationTime = input.nextInt();
-        } while (simulationTime > 10000 || simulationTime < 0);
+            System.out.print("Enter simulation time: ");
+            simulationTime = input.nextLong();
+        } while (simulationTime > SimulationEngine.MAX_SIMULATION_TIME || simulationTime < 0);
         do {
             System.out.print("Enter maximum transaction time of customers (max is 500): ");
             maxTransactionTime = input.nextInt();
@@ -92,25 +69,52 @@ class TellerFlowOptimizer
             chancesOfArrival = input.nextInt();
         } while (chancesOfArrival > 100 || chancesOfArrival <= 0);
         do {
-            System.out.print("Enter the number of tellers (max is 10): ");
+            System.out.print("Enter the number of tellers: ");
             numTellers = input.nextInt();
-        } while (numTellers > 10 || numTellers < 0);
+        } while (numTellers > SimulationEngine.MAX_TELLERS || numTellers < 1);
         do {
-            System.out.print("Enter customer queue limit (max is 50): ");
+            System.out.print("Enter customer queue limit: ");
             customerQLimit = input.nextInt();
-        } while (customerQLimit > 50 || customerQLimit < 0);
+        } while (customerQLimit < 0);
         do {
-            System.out.print("Enter 1/0 to get data from file/Random: ");
+            System.out.print("Enter 1/0/2/3 to get data from file/Random/Random with arrival profile/Random batches: ");
             dataSource = input.nextInt();
-        } while (dataSource > 1 || dataSource < 0);
+        } while (dataSource > 3 || dataSource < 0);
 
         if (dataSource == 1) {
             System.out.print("Reading data from file. Enter file name: ");
-            try {
-                dataFile = new Scanner( new File(input.next()) );
-            } catch (FileNotFoundException ex) {
+            dataFile = new File(input.next());
+            if (!dataFile.isFile()) {
                 System.out.println("File not found. Randomizing data instead.");
                 dataSource = 0;
+            } else if (TraceFile.isTraceFile(dataFile)) {
+                try {
+                    traceFile = new TraceFile(dataFile);
+                    System.out.println("Replaying recorded trace of " + traceFile.size() + " customers.");
+                } catch (IOException ex) {
+                    System.out.println(ex.getMessage() + ". Randomizing data instead.");
+                    dataSource = 0;
+                }
+            }
+        } else if (dataSource == 2) {
+            System.out.print("Enter arrival profile file name: ");
+            try {
+                profile = ArrivalProfile.read(new File(input.next()));
+                System.out.println("Randomizing data by arrival " + profile + ".");
+            } catch (IOException ex) {
+                System.out.println(ex.getMessage() + ". Randomizing data instead.");
+                dataSource = 0;
+            }
+        } else if (dataSource == 3) {
+            System.out.print("Enter mean customers per time unit (Poisson) or batch size file name: ");
+            String batches = input.next();
+            try {
+                batchSizes = batches.matches("[0-9.]+") ? BatchSizeDistribution.poisson(Double.parseDouble(batches))
+                        : BatchSizeDistribution.read(new File(batches));
+                System.out.println("Randomizing data in " + batchSizes + ".");
+            } catch (IOException | IllegalArgumentException ex) {
+                System.out.println(ex.getMessage() + ". Randomizing data instead.");
+                dataSource = 0;
             }
         } else {
             System.out.println("Randomizing data.");
@@ -119,269 +123,272 @@ class TellerFlowOptimizer
         dataRandom = new Random();
     }
 
-    private void getCustomerData()
+    private void recordTrace(File file)
     {
-        // get next customer data : from file or random number generator
-        // set anyNewArrival and transactionTime
+        try {
+            traceFile = TraceFile.record(createArrivalSource(), simulationTime, file);
+            System.out.println("Recorded " + traceFile.size() + " customers to " + file + ".");
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
 
+    private ArrivalSource createArrivalSource()
+    {
+        // get customer data : from file or random number generator
+        // every run gets a source of its own, so runs can execute concurrently
+        if (traceFile != null) {
+            return traceFile.replay();
+        }
         if (dataSource == 1) {
-            int data1, data2;
-            data1 = data2 = 0;
-
-            // assign 2 integers from file to data1 & data2
-            if (dataFile.hasNextInt()) {
-                data1 = dataFile.nextInt();
-                data2 = dataFile.nextInt();
+            try {
+                return new FileArrivalSource(dataFile, chancesOfArrival, maxTransactionTime);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
             }
+        }
+        if (dataSource == 2) {
+            return profile.schedule(new Random(dataRandom.nextLong()), maxTransactionTime, simulationTime).replay();
+        }
+        if (dataSource == 3) {
+            return new BatchArrivalSource(new Random(dataRandom.nextLong()), batchSizes, maxTransactionTime);
+        }
+        return new RandomArrivalSource(new Random(dataRandom.nextLong()), chancesOfArrival, maxTransactionTime);
+    }
 
-            anyNewArrival = (((data1%100)+1) <= chancesOfArrival);
-            transactionTime = (data2%maxTransactionTime)+1;
+    private SimulationRun newRun(SchedulingPolicy policy, ArrivalSource arrivals, SimulationLogSink runLog)
+    {
+        runLog.log(LogLevel.SUMMARY, "\n\t*** Start Simulation (" + policy.getName() + ") ***\n");
 
-        } else {
-            anyNewArrival = ((dataRandom.nextInt(100)+1) <= chancesOfArrival);
-            transactionTime = dataRandom.nextInt(maxTransactionTime)+1;
+        SimulationRun run = new SimulationRun(numTellers, customerQLimit, simulationTime,
+                policy, arrivals);
+        if (runLog.isEnabled(LogLevel.SUMMARY)) {
+            run.recordTimeSeries();
+        }
+        if (runLog.isEnabled(LogLevel.STEP)) {
+            run.addObserver(new ConsoleLogObserver(runLog, numTellers, customerQLimit));
         }
+        return run;
     }
 
-    private void doSimulation()
+    private SimulationRun doSimulation(SchedulingPolicy policy)
     {
-        System.out.println("\n\t*** Start Simulation ***\n");
+        SimulationRun run = newRun(policy, createArrivalSource(), log).call();
 
-        // Initialize ServiceArea
-        servicearea = new ServiceArea(numTellers, customerQLimit, 1);
-        
-        // Store teller objects for accurate final statistics
-        simulationTellers.clear();
-        for (int i = 0; i < numTellers; i++) {
-            simulationTellers.add(new Teller(i + 1));
-        }
+        // Algorithm comparison
+        algorithmResults.add(run.toAlgorithmResult());
+        return run;
+    }
 
-        // Time driver simulation loop
-        for (int currentTime = 0; currentTime < simulationTime; currentTime++) {
-
-            System.out.println("---------------------------------------------------------------");
-            System.out.println("Time  : " + (currentTime+1));
-            int currentQueueLen = servicearea.numWaitingCustomers();
-            queueLengths.add(currentQueueLen);
-            if (printStepSummary) {
-                int busyTellers = servicearea.numBusyTellers();
-                int freeTellers = servicearea.numFreeTellers();
-                System.out.printf("[Time %d] Queue: %d, Busy Tellers: %d, Free Tellers: %d\n", currentTime+1, currentQueueLen, busyTellers, freeTellers);
+    private void doComparison(List<SchedulingPolicy> policies)
+    {
+        // Common random numbers: the customer data is recorded once and every
+        // algorithm replays the same trace, so the comparison is paired.
+        CustomerTrace trace = CustomerTrace.record(createArrivalSource(), simulationTime);
+        log.log(LogLevel.SUMMARY, "All algorithms serve the same " + trace.size() + " arriving customers.");
+
+        // Each run logs into a temporary file of its own, so a long run at
+        // EVENT level takes no memory for its log; the files are copied to the
+        // log in order once all runs are done. However the comparison ends,
+        // the sinks are closed and the files deleted.
+        List<SimulationRun> runs = new ArrayList<>();
+        List<File> logFiles = new ArrayList<>();
+        List<SimulationLogSink> runLogs = new ArrayList<>();
+        try {
+            try {
+                for (SchedulingPolicy policy : policies) {
+                    SimulationLogSink runLog = SimulationLogSink.OFF;
+                    if (log.isEnabled(LogLevel.SUMMARY)) {
+                        File logFile = File.createTempFile("simulation-", ".log");
+                        logFiles.add(logFile);
+                        runLog = new AsyncLogSink(logFile, log.getLevel());
+                    }
+                    runLogs.add(runLog);
+                    SimulationRun run = newRun(policy, trace.replay(), runLog);
+                    // shutdownNow() interrupts the worker, which ends the run
+                    run.getEngine().setCancelCheck(() -> Thread.currentThread().isInterrupted());
+                    runs.add(run);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
             }
-            System.out.println("Queue : " + currentQueueLen
-                    + "/" + customerQLimit);
 
-            totalWaitingTime = (servicearea.numWaitingCustomers() > 0) ? totalWaitingTime+1 : 0;
-            
-            // Update enhanced statistics
-            updateQueueStatistics(servicearea.numWaitingCustomers(), currentTime);
-            updateTellerUtilization(servicearea.numBusyTellers(), numTellers, currentTime);
-
-            // Step 1: any new customer enters the bank?
-            getCustomerData();
-
-            if (anyNewArrival) {
-
-                // Step 1.1: setup customer data
-                customerIDCounter++;
-                System.out.println("\tCustomer #" + customerIDCounter
-                        + " arrives with transaction time " + transactionTime + " unit(s).");
-
-                // Step 1.2: check customer waiting queue too long?
-                if (servicearea.isCustomerQTooLong()) {
-                    System.out.println("\tCustomer queue full. Customer #" + customerIDCounter + " leaves...");
-                    numGoaway++;
-                } else {
-                    System.out.println("\tCustomer #" + customerIDCounter + " waits in the customer queue.");
-                    servicearea.insertCustomerQ( new Customer(customerIDCounter, transactionTime, currentTime) );
+            int numThreads = Math.min(runs.size(), Runtime.getRuntime().availableProcessors());
+            ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+            try {
+                for (Future<SimulationRun> done : executor.invokeAll(runs)) {
+                    done.get();
                 }
-
-            } else {
-                System.out.println("\tNo new customer!");
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("Simulation run failed", ex.getCause());
+            } finally {
+                stopRuns(executor);
             }
 
-            // Step 2: free busy tellers, add to free tellerQ
-            while (servicearea.numBusyTellers() > 0 && servicearea.getFrontBusyTellerQ().getEndBusyIntervalTime() == currentTime) {
-                Teller teller = servicearea.removeBusyTellerQ();
-                teller.busyToFree();
-                servicearea.insertFreeTellerQ(teller);
-                
-                // Update corresponding teller in our stored list
-                int tellerIndex = teller.getTellerID() - 1;
-                if (tellerIndex >= 0 && tellerIndex < simulationTellers.size()) {
-                    simulationTellers.get(tellerIndex).busyToFree();
+            for (int i = 0; i < runs.size(); i++) {
+                SimulationRun run = runs.get(i);
+                runLogs.get(i).close();
+                log.log(LogLevel.SUMMARY, "\n" + "=".repeat(50));
+                log.log(LogLevel.SUMMARY, "RUNNING " + run.getAlgorithmName().toUpperCase() + " ALGORITHM");
+                log.log(LogLevel.SUMMARY, "=".repeat(50));
+                if (i < logFiles.size()) {
+                    copyLog(logFiles.get(i));
                 }
+                printStatistics(run);
 
-                System.out.println("\tCustomer #" + teller.getCustomer().getCustomerID() + " is done.");
-                System.out.println("\tTeller #" + teller.getTellerID() + " is free.");
+                // Algorithm comparison
+                algorithmResults.add(run.toAlgorithmResult());
             }
+        } finally {
+            discardRunLogs(runLogs, logFiles);
+        }
+    }
 
-            // Step 3: get free tellers to serve waiting customers
-            while (servicearea.numFreeTellers() > 0 && servicearea.numWaitingCustomers() > 0) {
-                Customer customer = servicearea.removeCustomerQ();
-                Teller teller = servicearea.removeFreeTellerQ();
-                teller.freeToBusy(customer, currentTime);
-                servicearea.insertBusyTellerQ(teller);
-                numServed++;
-                
-                // Track customer wait time
-                int waitTime = currentTime - customer.getArrivalTime();
-                updateCustomerWaitTime(customer.getCustomerID(), waitTime);
-                
-                // Update corresponding teller in our stored list
-                int tellerIndex = teller.getTellerID() - 1;
-                if (tellerIndex >= 0 && tellerIndex < simulationTellers.size()) {
-                    simulationTellers.get(tellerIndex).freeToBusy(customer, currentTime);
-                }
+    private static void stopRuns(ExecutorService executor)
+    {
+        // interrupt the runs still going and wait for them, so none of them
+        // logs into a sink that is about to be closed
+        executor.shutdownNow();
+        boolean interrupted = Thread.interrupted();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException ex) {
+            interrupted = true;
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
 
-                System.out.println("\tCustomer #" + customer.getCustomerID() + " gets teller #"
-                        + teller.getTellerID() + " for " + customer.getTransactionTime() + " unit(s).");
+    private static void discardRunLogs(List<SimulationLogSink> runLogs, List<File> logFiles)
+    {
+        // closing a sink twice does nothing; after a failed run its log is
+        // thrown away, so an error closing it must not hide the failure
+        for (SimulationLogSink runLog : runLogs) {
+            try {
+                runLog.close();
+            } catch (RuntimeException ex) {
+                // the log is discarded anyway
             }
+        }
+        for (File logFile : logFiles) {
+            logFile.delete();
+        }
+    }
 
-        } // end simulation loop
+    private void copyLog(File logFile)
+    {
+        // lines in the file already passed the level filter
+        try (BufferedReader in = new BufferedReader(new FileReader(logFile))) {
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                log.log(LogLevel.SUMMARY, line);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        logFile.delete();
     }
 
-    private void printStatistics()
+    private void printStatistics(SimulationRun run)
     {
+        SimulationEngine engine = run.getEngine();
+        SimulationStatistics stats = run.getStatistics();
+
         // print out simulation results
 
-        System.out.println("\n===============================================================\n");
-        System.out.println("\t*** End of simulation report ***\n\n");
-        System.out.println("\t\t# total arrival customers : " + customerIDCounter);
-        System.out.println("\t\t# customers gone away     : " + numGoaway);
-        System.out.println("\t\t# customers served        : " + numServed);
+        log.log(LogLevel.SUMMARY, "\n===============================================================\n");
+        log.log(LogLevel.SUMMARY, "\t*** End of simulation report ***\n\n");
+        log.log(LogLevel.SUMMARY, "\t\t# total arrival customers : " + stats.getTotalArrivals());
+        log.log(LogLevel.SUMMARY, "\t\t# customers gone away     : " + stats.getNumGoaway());
+        log.log(LogLevel.SUMMARY, "\t\t# customers served        : " + stats.getNumServed());
 
         // Enhanced statistics
-        System.out.println("\n\t*** Enhanced Performance Metrics ***\n");
+        log.log(LogLevel.SUMMARY, "\n\t*** Enhanced Performance Metrics ***\n");
         
         // Wait time statistics
-        double avgWaitTime = customerWaitTimes.isEmpty() ? 0.0 : 
-            (double)totalCustomerWaitTime / customerWaitTimes.size();
-        System.out.printf("\t\tAverage customer wait time : %.2f units\n", avgWaitTime);
-        System.out.println("\t\tMaximum wait time          : " + maxWaitTime + " units");
-        System.out.println("\t\tPeak queue length          : " + peakQueueLength + " customers");
+        log.printf(LogLevel.SUMMARY, "\t\tAverage customer wait time : %.2f units", stats.getAverageWaitTime());
+        log.printf(LogLevel.SUMMARY, "\t\tWait time std deviation    : %.2f units", stats.getWaitTimeStdDev());
+        log.printf(LogLevel.SUMMARY, "\t\tWait time p50 / p95 / p99  : %d / %d / %d units",
+                stats.getWaitTimePercentile(50), stats.getWaitTimePercentile(95), stats.getWaitTimePercentile(99));
+        log.log(LogLevel.SUMMARY, "\t\tMaximum wait time          : " + stats.getMaxWaitTime() + " units");
+        log.log(LogLevel.SUMMARY, "\t\tPeak queue length          : " + stats.getPeakQueueLength() + " customers");
         
         // Teller utilization
-        double avgTellerUtilization = tellerUtilization.isEmpty() ? 0.0 :
-            (double)totalTellerBusyTime / (totalTellerBusyTime + totalTellerIdleTime) * 100;
-        System.out.printf("\t\tAverage teller utilization : %.2f%%\n", avgTellerUtilization);
+        log.printf(LogLevel.SUMMARY, "\t\tAverage teller utilization : %.2f%%", stats.getAverageTellerUtilization());
         
         // Queue efficiency
-        double queueEfficiency = customerIDCounter == 0 ? 0.0 :
-            (double)numServed / customerIDCounter * 100;
-        System.out.printf("\t\tQueue efficiency           : %.2f%%\n", queueEfficiency);
+        log.printf(LogLevel.SUMMARY, "\t\tQueue efficiency           : %.2f%%", stats.getQueueEfficiency());
         
         // Service quality metrics
-        if (numServed > 0) {
-            double avgServiceTime = (double)totalTellerBusyTime / numServed;
-            System.out.printf("\t\tAverage service time       : %.2f units\n", avgServiceTime);
+        if (stats.getNumServed() > 0) {
+            log.printf(LogLevel.SUMMARY, "\t\tAverage service time       : %.2f units", stats.getAverageServiceTime());
         }
 
-        System.out.println("\n\n\t*** Current Tellers info. ***\n\n");
-        servicearea.printStatistics();
+        log.log(LogLevel.SUMMARY, "\n\n\t*** Current Tellers info. ***\n\n");
+        log.log(LogLevel.SUMMARY, "\t\t# waiting customers : "+engine.numWaitingCustomers());
+        log.log(LogLevel.SUMMARY, "\t\t# busy tellers      : "+engine.numBusyTellers());
+        log.log(LogLevel.SUMMARY, "\t\t# free tellers      : "+engine.numFreeTellers());
 
-        System.out.println("\n\n\t\tTotal waiting time   : " + totalWaitingTime);
-        double averageWaitingTime = ( servicearea.emptyCustomerQ() )
-                ? 0.0 : (double)totalWaitingTime / servicearea.numWaitingCustomers();
-        System.out.printf("\t\tAverage waiting time : %.2f\n", averageWaitingTime);
+        log.log(LogLevel.SUMMARY, "\n\n\t\tTotal waiting time   : " + stats.getTotalWaitingTime());
+        double averageWaitingTime = ( engine.numWaitingCustomers() == 0 )
+                ? 0.0 : (double)stats.getTotalWaitingTime() / engine.numWaitingCustomers();
+        log.printf(LogLevel.SUMMARY, "\t\tAverage waiting time : %.2f", averageWaitingTime);
 
-        System.out.println("\n\n\t*** Final Teller Statistics ***\n\n");
-        if (!simulationTellers.isEmpty()) {
-            for (Teller teller : simulationTellers) {
-                teller.setEndIntervalTime(simulationTime, teller.getCustomer() != null ? 1 : 0);
-                teller.printStatistics();
+        log.log(LogLevel.SUMMARY, "\n\n\t*** Final Teller Statistics ***\n\n");
+        if (!engine.getTellers().isEmpty()) {
+            for (Teller teller : engine.getTellers()) {
+                teller.printStatistics(log);
             }
         } else {
-            System.out.println("\t\tNo teller data available.\n");
+            log.log(LogLevel.SUMMARY, "\t\tNo teller data available.\n");
         }
-        System.out.println();
+        log.log(LogLevel.SUMMARY, "");
 
         // Real-time queue trends
-        if (!queueLengths.isEmpty()) {
-            int minQ = queueLengths.stream().min(Integer::compareTo).orElse(0);
-            int maxQ = queueLengths.stream().max(Integer::compareTo).orElse(0);
-            double avgQ = queueLengths.stream().mapToInt(i->i).average().orElse(0.0);
-            System.out.printf("\n\tQueue length (min/avg/max): %d / %.2f / %d\n", minQ, avgQ, maxQ);
+        if (stats.getSampledTime() > 0) {
+            log.printf(LogLevel.SUMMARY, "\n\tQueue length (min/avg/max): %d / %.2f / %d",
+                    stats.getMinQueueLength(), stats.getAverageQueueLength(), stats.getPeakQueueLength());
         }
-    }
-
-    // Enhanced statistics tracking methods
-    private void updateQueueStatistics(int currentQueueLength, int currentTime) {
-        // Track peak queue length
-        if (currentQueueLength > peakQueueLength) {
-            peakQueueLength = currentQueueLength;
-        }
-        
-        // Track total queue time
-        if (currentQueueLength > 0) {
-            totalQueueTime++;
+        if (run.getTimeSeries() != null) {
+            printTrends(run.getTimeSeries());
         }
     }
 
-    private void updateCustomerWaitTime(int customerID, int waitTime) {
-        customerWaitTimes.add(waitTime);
-        totalCustomerWaitTime += waitTime;
-        if (waitTime > maxWaitTime) {
-            maxWaitTime = waitTime;
+    private void printTrends(TimeSeriesObserver timeSeries)
+    {
+        // queue length and busy tellers over the run, in TREND_BUCKETS parts
+        TimeSeriesStore queue = timeSeries.getQueueLength();
+        List<TimeSeriesStore.Bucket> queueBuckets = queue.query(0, queue.getEndTime(), TREND_BUCKETS);
+        List<TimeSeriesStore.Bucket> busyBuckets = timeSeries.getBusyTellers().query(0, queue.getEndTime(), TREND_BUCKETS);
+        if (queueBuckets.size() < 2 || queueBuckets.size() != busyBuckets.size()) return;
+
+        log.log(LogLevel.SUMMARY, "\n\tQueue length over time (min/avg/max) and average busy tellers:");
+        for (int i = 0; i < queueBuckets.size(); i++) {
+            TimeSeriesStore.Bucket q = queueBuckets.get(i);
+            log.printf(LogLevel.SUMMARY, "\t\t[%d, %d)\t: %.0f / %.2f / %.0f\tbusy %.2f",
+                    q.getStart(), q.getEnd(), q.getMin(), q.getAvg(), q.getMax(), busyBuckets.get(i).getAvg());
         }
     }
 
-    private void updateTellerUtilization(int busyTellers, int totalTellers, int currentTime) {
-        int utilization = totalTellers == 0 ? 0 : (busyTellers * 100) / totalTellers;
-        tellerUtilization.add(utilization);
-        
-        // Track total busy and idle time
-        totalTellerBusyTime += busyTellers;
-        totalTellerIdleTime += (totalTellers - busyTellers);
-    }
-    
-    // Algorithm comparison methods
-    private void captureAlgorithmResult(String algorithmName) {
-        AlgorithmResult result = new AlgorithmResult(algorithmName);
-        
-        // Calculate metrics
-        double avgWaitTime = customerWaitTimes.isEmpty() ? 0.0 : 
-            (double)totalCustomerWaitTime / customerWaitTimes.size();
-        double avgTellerUtilization = tellerUtilization.isEmpty() ? 0.0 :
-            (double)totalTellerBusyTime / (totalTellerBusyTime + totalTellerIdleTime) * 100;
-        double queueEfficiency = customerIDCounter == 0 ? 0.0 :
-            (double)numServed / customerIDCounter * 100;
-        double avgServiceTime = numServed > 0 ? (double)totalTellerBusyTime / numServed : 0.0;
-        double avgQueueLength = queueLengths.isEmpty() ? 0.0 : 
-            queueLengths.stream().mapToInt(i->i).average().orElse(0.0);
-        
-        // Set results
-        result.setAvgWaitTime(avgWaitTime);
-        result.setMaxWaitTime(maxWaitTime);
-        result.setAvgTellerUtilization(avgTellerUtilization);
-        result.setQueueEfficiency(queueEfficiency);
-        result.setTotalCustomers(customerIDCounter);
-        result.setCustomersServed(numServed);
-        result.setCustomersGoneAway(numGoaway);
-        result.setAvgServiceTime(avgServiceTime);
-        result.setPeakQueueLength(peakQueueLength);
-        result.setAvgQueueLength(avgQueueLength);
-        
-        algorithmResults.add(result);
-    }
-    
     private void printComparisonTable() {
         if (algorithmResults.size() < 2) return;
         
-        System.out.println("\n" + "=".repeat(80));
-        System.out.println("\t\t*** ALGORITHM COMPARISON TABLE ***");
-        System.out.println("=".repeat(80));
+        log.log(LogLevel.SUMMARY, "\n" + "=".repeat(80));
+        log.log(LogLevel.SUMMARY, "\t\t*** ALGORITHM COMPARISON TABLE ***");
+        log.log(LogLevel.SUMMARY, "=".repeat(80));
         
         // Print header
-        System.out.printf("%-15s %-12s %-12s %-15s %-15s %-12s %-12s\n", 
-            "Algorithm", "Avg Wait", "Max Wait", "Utilization", "Queue Eff.", "Peak Queue", "Avg Queue");
-        System.out.println("-".repeat(80));
+        log.printf(LogLevel.SUMMARY, "%-15s %-10s %-10s %-10s %-13s %-12s %-12s %-10s", 
+            "Algorithm", "Avg Wait", "P95 Wait", "Max Wait", "Utilization", "Queue Eff.", "Peak Queue", "Avg Queue");
+        log.log(LogLevel.SUMMARY, "-".repeat(80));
         
         // Print each algorithm's results
         for (AlgorithmResult result : algorithmResults) {
-            System.out.printf("%-15s %-12.2f %-12d %-15.2f %-15.2f %-12d %-12.2f\n",
+            log.printf(LogLevel.SUMMARY, "%-15s %-10.2f %-10d %-10d %-13.2f %-12.2f %-12d %-10.2f",
                 result.getAlgorithmName(),
                 result.getAvgWaitTime(),
+                result.getP95WaitTime(),
                 result.getMaxWaitTime(),
                 result.getAvgTellerUtilization(),
                 result.getQueueEfficiency(),
@@ -389,7 +396,7 @@ class TellerFlowOptimizer
                 result.getAvgQueueLength());
         }
         
-        System.out.println("-".repeat(80));
+        log.log(LogLevel.SUMMARY, "-".repeat(80));
         
         // Find best performers
         AlgorithmResult bestWait = algorithmResults.stream()
@@ -402,426 +409,93 @@ class TellerFlowOptimizer
             .max((a, b) -> Double.compare(a.getQueueEfficiency(), b.getQueueEfficiency()))
             .orElse(null);
             
-        System.out.println("\n*** BEST PERFORMERS ***");
-        if (bestWait != null) System.out.println("Lowest avg wait time: " + bestWait.getAlgorithmName());
-        if (bestUtilization != null) System.out.println("Highest utilization: " + bestUtilization.getAlgorithmName());
-        if (bestEfficiency != null) System.out.println("Best queue efficiency: " + bestEfficiency.getAlgorithmName());
-        System.out.println("=".repeat(80));
+        log.log(LogLevel.SUMMARY, "\n*** BEST PERFORMERS ***");
+        if (bestWait != null) log.log(LogLevel.SUMMARY, "Lowest avg wait time: " + bestWait.getAlgorithmName());
+        if (bestUtilization != null) log.log(LogLevel.SUMMARY, "Highest utilization: " + bestUtilization.getAlgorithmName());
+        if (bestEfficiency != null) log.log(LogLevel.SUMMARY, "Best queue efficiency: " + bestEfficiency.getAlgorithmName());
+        log.log(LogLevel.SUMMARY, "=".repeat(80));
     }
     
-    private void resetForNextRun() {
-        // Reset counters for next algorithm run
-        numGoaway = 0;
-        numServed = 0;
-        totalWaitingTime = 0;
-        customerIDCounter = 0;
-        maxWaitTime = 0;
-        totalCustomerWaitTime = 0;
-        totalTellerBusyTime = 0;
-        totalTellerIdleTime = 0;
-        customerWaitTimes.clear();
-        tellerUtilization.clear();
-        peakQueueLength = 0;
-        totalQueueTime = 0;
-        queueLengths.clear();
-        simulationTellers.clear();
-    }
-
-    private void runGreedy() {
-        // Reuse the current doSimulation() logic
-        doSimulation();
-        captureAlgorithmResult("Greedy");
-    }
-
-    private void runRoundRobin() {
-        System.out.println("\n\t*** Start Simulation (Round Robin) ***\n");
-        // Initialize ServiceArea
-        servicearea = new ServiceArea(numTellers, customerQLimit, 1);
-        int tellerIndex = 0;
-        List<Teller> tellers = new ArrayList<>();
-        for (int i = 0; i < numTellers; i++) {
-            tellers.add(new Teller(i + 1));
-        }
-        
-        // Store teller objects for accurate final statistics
-        simulationTellers.clear();
-        simulationTellers.addAll(tellers);
-
-        Queue<Customer> customerQueue = new ArrayDeque<>();
-        for (int currentTime = 0; currentTime < simulationTime; currentTime++) {
-            System.out.println("---------------------------------------------------------------");
-            System.out.println("Time  : " + (currentTime + 1));
-            int currentQueueLen = customerQueue.size();
-            queueLengths.add(currentQueueLen);
-            if (printStepSummary) {
-                int busyTellers = (int) tellers.stream().filter(t -> t.getCustomer() != null).count();
-                int freeTellers = tellers.size() - busyTellers;
-                System.out.printf("[Time %d] Queue: %d, Busy Tellers: %d, Free Tellers: %d\n", currentTime+1, currentQueueLen, busyTellers, freeTellers);
-            }
-            System.out.println("Queue : " + currentQueueLen + "/" + customerQLimit);
-            totalWaitingTime = (customerQueue.size() > 0) ? totalWaitingTime + 1 : 0;
-            
-            // Update enhanced statistics
-            updateQueueStatistics(customerQueue.size(), currentTime);
-            updateTellerUtilization(tellers.stream().mapToInt(t -> t.getCustomer() != null ? 1 : 0).sum(), tellers.size(), currentTime);
-            
-            getCustomerData();
-            if (anyNewArrival) {
-                customerIDCounter++;
-                System.out.println("\tCustomer #" + customerIDCounter + " arrives with transaction time " + transactionTime + " unit(s).");
-                if (customerQueue.size() == customerQLimit) {
-                    System.out.println("\tCustomer queue full. Customer #" + customerIDCounter + " leaves...");
-                    numGoaway++;
-                } else {
-                    System.out.println("\tCustomer #" + customerIDCounter + " waits in the customer queue.");
-                    customerQueue.add(new Customer(customerIDCounter, transactionTime, currentTime));
-                }
-            } else {
-                System.out.println("\tNo new customer!");
-            }
-            // Assign customers to tellers in round robin
-            Iterator<Teller> busyIter = tellers.iterator();
-            while (busyIter.hasNext()) {
-                Teller t = busyIter.next();
-                if (t.getCustomer() != null && t.getEndBusyIntervalTime() == currentTime) {
-                    t.busyToFree();
-                    System.out.println("\tCustomer #" + t.getCustomer().getCustomerID() + " is done.");
-                    System.out.println("\tTeller #" + t.getTellerID() + " is free.");
-                }
-            }
-            for (int i = 0; i < tellers.size(); i++) {
-                Teller teller = tellers.get(tellerIndex);
-                if (teller.getCustomer() == null && !customerQueue.isEmpty()) {
-                    Customer customer = customerQueue.poll();
-                    teller.freeToBusy(customer, currentTime);
-                    numServed++;
-                    
-                    // Track customer wait time
-                    int waitTime = currentTime - customer.getArrivalTime();
-                    updateCustomerWaitTime(customer.getCustomerID(), waitTime);
-                    
-                    System.out.println("\tCustomer #" + customer.getCustomerID() + " gets teller #" + teller.getTellerID() + " for " + customer.getTransactionTime() + " unit(s).");
-                }
-                tellerIndex = (tellerIndex + 1) % tellers.size();
-            }
-        }
-        // Print teller stats
-        for (Teller teller : tellers) {
-            teller.setEndIntervalTime(simulationTime, teller.getCustomer() != null ? 1 : 0);
-            teller.printStatistics();
-        }
-        captureAlgorithmResult("Round Robin");
+    // Static method for JavaFX UI integration
+    public static SimulationResult runWithParams(long simTime, int maxTrans, int chance, int tellers, int queueLimit, String algorithm) {
+        return runUncached(simTime, maxTrans, chance, tellers, queueLimit, algorithm, new Random().nextLong());
     }
 
-    private void runLeastWorkLeft() {
-        System.out.println("\n\t*** Start Simulation (Least Work Left) ***\n");
-        // Initialize ServiceArea
-        servicearea = new ServiceArea(numTellers, customerQLimit, 1);
-        List<Teller> tellers = new ArrayList<>();
-        for (int i = 0; i < numTellers; i++) {
-            tellers.add(new Teller(i + 1));
-        }
-        
-        // Store teller objects for accurate final statistics
-        simulationTellers.clear();
-        simulationTellers.addAll(tellers);
-
-        Queue<Customer> customerQueue = new ArrayDeque<>();
-        int[] tellerFinishTimes = new int[numTellers];
-        for (int currentTime = 0; currentTime < simulationTime; currentTime++) {
-            System.out.println("---------------------------------------------------------------");
-            System.out.println("Time  : " + (currentTime + 1));
-            int currentQueueLen = customerQueue.size();
-            queueLengths.add(currentQueueLen);
-            if (printStepSummary) {
-                int busyTellers = (int) tellers.stream().filter(t -> t.getCustomer() != null).count();
-                int freeTellers = tellers.size() - busyTellers;
-                System.out.printf("[Time %d] Queue: %d, Busy Tellers: %d, Free Tellers: %d\n", currentTime+1, currentQueueLen, busyTellers, freeTellers);
-            }
-            System.out.println("Queue : " + currentQueueLen + "/" + customerQLimit);
-            totalWaitingTime = (customerQueue.size() > 0) ? totalWaitingTime + 1 : 0;
-            
-            // Update enhanced statistics
-            updateQueueStatistics(customerQueue.size(), currentTime);
-            updateTellerUtilization(tellers.stream().mapToInt(t -> t.getCustomer() != null ? 1 : 0).sum(), tellers.size(), currentTime);
-            
-            getCustomerData();
-            if (anyNewArrival) {
-                customerIDCounter++;
-                System.out.println("\tCustomer #" + customerIDCounter + " arrives with transaction time " + transactionTime + " unit(s).");
-                if (customerQueue.size() == customerQLimit) {
-                    System.out.println("\tCustomer queue full. Customer #" + customerIDCounter + " leaves...");
-                    numGoaway++;
-                } else {
-                    System.out.println("\tCustomer #" + customerIDCounter + " waits in the customer queue.");
-                    customerQueue.add(new Customer(customerIDCounter, transactionTime, currentTime));
-                }
-            } else {
-                System.out.println("\tNo new customer!");
-            }
-            // Free up tellers who are done
-            for (int i = 0; i < tellers.size(); i++) {
-                Teller t = tellers.get(i);
-                if (t.getCustomer() != null && t.getEndBusyIntervalTime() == currentTime) {
-                    t.busyToFree();
-                    System.out.println("\tCustomer #" + t.getCustomer().getCustomerID() + " is done.");
-                    System.out.println("\tTeller #" + t.getTellerID() + " is free.");
-                }
-            }
-            // Assign customers to teller with least work left
-            while (!customerQueue.isEmpty()) {
-                int minIndex = 0;
-                int minFinish = Integer.MAX_VALUE;
-                for (int i = 0; i < tellers.size(); i++) {
-                    Teller t = tellers.get(i);
-                    int finish = t.getCustomer() == null ? currentTime : t.getEndBusyIntervalTime();
-                    if (finish < minFinish) {
-                        minFinish = finish;
-                        minIndex = i;
-                    }
-                }
-                Teller chosen = tellers.get(minIndex);
-                if (chosen.getCustomer() == null) {
-                    Customer customer = customerQueue.poll();
-                    chosen.freeToBusy(customer, currentTime);
-                    numServed++;
-                    
-                    // Track customer wait time
-                    int waitTime = currentTime - customer.getArrivalTime();
-                    updateCustomerWaitTime(customer.getCustomerID(), waitTime);
-                    
-                    System.out.println("\tCustomer #" + customer.getCustomerID() + " gets teller #" + chosen.getTellerID() + " for " + customer.getTransactionTime() + " unit(s).");
-                } else {
-                    break;
-                }
-            }
-        }
-        // Print teller stats
-        for (Teller teller : tellers) {
-            teller.setEndIntervalTime(simulationTime, teller.getCustomer() != null ? 1 : 0);
-            teller.printStatistics();
-        }
-        captureAlgorithmResult("Least Work Left");
+    // Same with the random customer data drawn from seed: the result is
+    // reproducible, and a repeated call is answered from RESULT_CACHE.
+    public static SimulationResult runWithParams(long simTime, int maxTrans, int chance, int tellers, int queueLimit,
+                                                 String algorithm, long seed) {
+        return RESULT_CACHE.get(new ResultCache.Key(simTime, maxTrans, chance, tellers, queueLimit, algorithm, seed),
+                () -> runUncached(simTime, maxTrans, chance, tellers, queueLimit, algorithm, seed));
     }
 
-    // Simulation with log for JavaFX UI
-    private void doSimulationWithLog(StringBuilder log) {
-        servicearea = new ServiceArea(numTellers, customerQLimit, 1);
-        simulationTellers.clear();
-        for (int i = 0; i < numTellers; i++) {
-            simulationTellers.add(new Teller(i + 1));
-        }
-        for (int currentTime = 0; currentTime < simulationTime; currentTime++) {
-            log.append("Time: ").append(currentTime + 1).append(", Queue: ")
-                .append(servicearea.numWaitingCustomers()).append("/" + customerQLimit).append("\n");
-            getCustomerData();
-            if (anyNewArrival) {
-                customerIDCounter++;
-                log.append("  Customer #").append(customerIDCounter)
-                    .append(" arrives with transaction time ").append(transactionTime).append("\n");
-                if (servicearea.isCustomerQTooLong()) {
-                    log.append("  Customer queue full. Customer #").append(customerIDCounter).append(" leaves...\n");
-                    numGoaway++;
-                } else {
-                    log.append("  Customer #").append(customerIDCounter).append(" waits in the customer queue.\n");
-                    servicearea.insertCustomerQ(new Customer(customerIDCounter, transactionTime, currentTime));
-                }
-            } else {
-                log.append("  No new customer!\n");
-            }
-            while (servicearea.numBusyTellers() > 0 && servicearea.getFrontBusyTellerQ().getEndBusyIntervalTime() == currentTime) {
-                Teller teller = servicearea.removeBusyTellerQ();
-                teller.busyToFree();
-                servicearea.insertFreeTellerQ(teller);
-                int tellerIndex = teller.getTellerID() - 1;
-                if (tellerIndex >= 0 && tellerIndex < simulationTellers.size()) {
-                    simulationTellers.get(tellerIndex).busyToFree();
-                }
-                log.append("  Customer #").append(teller.getCustomer().getCustomerID()).append(" is done.\n");
-                log.append("  Teller #").append(teller.getTellerID()).append(" is free.\n");
-            }
-            while (servicearea.numFreeTellers() > 0 && servicearea.numWaitingCustomers() > 0) {
-                Customer customer = servicearea.removeCustomerQ();
-                Teller teller = servicearea.removeFreeTellerQ();
-                teller.freeToBusy(customer, currentTime);
-                servicearea.insertBusyTellerQ(teller);
-                numServed++;
-                int waitTime = currentTime - customer.getArrivalTime();
-                updateCustomerWaitTime(customer.getCustomerID(), waitTime);
-                int tellerIndex = teller.getTellerID() - 1;
-                if (tellerIndex >= 0 && tellerIndex < simulationTellers.size()) {
-                    simulationTellers.get(tellerIndex).freeToBusy(customer, currentTime);
-                }
-                log.append("  Customer #").append(customer.getCustomerID()).append(" gets teller #")
-                    .append(teller.getTellerID()).append(" for ")
-                    .append(customer.getTransactionTime()).append(" unit(s).\n");
-            }
-        }
+    private static SimulationResult runUncached(long simTime, int maxTrans, int chance, int tellers, int queueLimit,
+                                                String algorithm, long seed) {
+        // keep only the end of the log
+        StreamingLogSink log = new StreamingLogSink(LogLevel.EVENT, UI_LOG_LINES);
+        SimulationResult result = runWithParams(simTime, maxTrans, chance, tellers, queueLimit, algorithm, seed,
+                log, null, () -> false);
+        log.close();
+        return new SimulationResult(log.getTail(), result.getTellerUtilizations());
     }
 
-    private void doRoundRobinWithLog(StringBuilder log) {
-        servicearea = new ServiceArea(numTellers, customerQLimit, 1);
-        List<Teller> tellers = new ArrayList<>();
-        for (int i = 0; i < numTellers; i++) {
-            tellers.add(new Teller(i + 1));
-        }
-        simulationTellers.clear();
-        simulationTellers.addAll(tellers);
-        Queue<Customer> customerQueue = new ArrayDeque<>();
-        int tellerIndex = 0;
-        for (int currentTime = 0; currentTime < simulationTime; currentTime++) {
-            log.append("Time: ").append(currentTime + 1).append(", Queue: ")
-                .append(customerQueue.size()).append("/" + customerQLimit).append("\n");
-            getCustomerData();
-            if (anyNewArrival) {
-                customerIDCounter++;
-                log.append("  Customer #").append(customerIDCounter)
-                    .append(" arrives with transaction time ").append(transactionTime).append("\n");
-                if (customerQueue.size() == customerQLimit) {
-                    log.append("  Customer queue full. Customer #").append(customerIDCounter).append(" leaves...\n");
-                    numGoaway++;
-                } else {
-                    log.append("  Customer #").append(customerIDCounter).append(" waits in the customer queue.\n");
-                    customerQueue.add(new Customer(customerIDCounter, transactionTime, currentTime));
-                }
-            } else {
-                log.append("  No new customer!\n");
-            }
-            for (Teller t : tellers) {
-                if (t.getCustomer() != null && t.getEndBusyIntervalTime() == currentTime) {
-                    t.busyToFree();
-                    log.append("  Customer #").append(t.getCustomer().getCustomerID()).append(" is done.\n");
-                    log.append("  Teller #").append(t.getTellerID()).append(" is free.\n");
-                }
-            }
-            for (int i = 0; i < tellers.size(); i++) {
-                Teller teller = tellers.get(tellerIndex);
-                if (teller.getCustomer() == null && !customerQueue.isEmpty()) {
-                    Customer customer = customerQueue.poll();
-                    teller.freeToBusy(customer, currentTime);
-                    numServed++;
-                    int waitTime = currentTime - customer.getArrivalTime();
-                    updateCustomerWaitTime(customer.getCustomerID(), waitTime);
-                    log.append("  Customer #").append(customer.getCustomerID()).append(" gets teller #")
-                        .append(teller.getTellerID()).append(" for ")
-                        .append(customer.getTransactionTime()).append(" unit(s).\n");
-                }
-                tellerIndex = (tellerIndex + 1) % tellers.size();
-            }
+    // Same, logging into the given sink and reporting to progress (if not
+    // null) while the simulation runs, and stopping early once cancelled
+    // returns true. The result carries no log text and is not cached.
+    static SimulationResult runWithParams(long simTime, int maxTrans, int chance, int tellers, int queueLimit,
+                                          String algorithm, long seed, SimulationLogSink log,
+                                          SimulationObserver progress, BooleanSupplier cancelled) {
+        List<Double> utilizations = new ArrayList<>();
+        // Always use random data for UI
+        SimulationEngine engine = new SimulationEngine(tellers, queueLimit, simTime,
+                createPolicy(algorithm), new RandomArrivalSource(new Random(seed), chance, maxTrans));
+        if (log.isEnabled(LogLevel.STEP)) {
+            engine.addObserver(new TextLogObserver(log, queueLimit));
         }
-    }
-
-    private void doLeastWorkLeftWithLog(StringBuilder log) {
-        servicearea = new ServiceArea(numTellers, customerQLimit, 1);
-        List<Teller> tellers = new ArrayList<>();
-        for (int i = 0; i < numTellers; i++) {
-            tellers.add(new Teller(i + 1));
+        if (progress != null) {
+            engine.addObserver(progress);
         }
-        simulationTellers.clear();
-        simulationTellers.addAll(tellers);
-        Queue<Customer> customerQueue = new ArrayDeque<>();
-        for (int currentTime = 0; currentTime < simulationTime; currentTime++) {
-            log.append("Time: ").append(currentTime + 1).append(", Queue: ")
-                .append(customerQueue.size()).append("/" + customerQLimit).append("\n");
-            getCustomerData();
-            if (anyNewArrival) {
-                customerIDCounter++;
-                log.append("  Customer #").append(customerIDCounter)
-                    .append(" arrives with transaction time ").append(transactionTime).append("\n");
-                if (customerQueue.size() == customerQLimit) {
-                    log.append("  Customer queue full. Customer #").append(customerIDCounter).append(" leaves...\n");
-                    numGoaway++;
-                } else {
-                    log.append("  Customer #").append(customerIDCounter).append(" waits in the customer queue.\n");
-                    customerQueue.add(new Customer(customerIDCounter, transactionTime, currentTime));
-                }
-            } else {
-                log.append("  No new customer!\n");
-            }
-            for (Teller t : tellers) {
-                if (t.getCustomer() != null && t.getEndBusyIntervalTime() == currentTime) {
-                    t.busyToFree();
-                    log.append("  Customer #").append(t.getCustomer().getCustomerID()).append(" is done.\n");
-                    log.append("  Teller #").append(t.getTellerID()).append(" is free.\n");
-                }
-            }
-            while (!customerQueue.isEmpty()) {
-                int minIndex = 0;
-                int minFinish = Integer.MAX_VALUE;
-                for (int i = 0; i < tellers.size(); i++) {
-                    Teller t = tellers.get(i);
-                    int finish = t.getCustomer() == null ? currentTime : t.getEndBusyIntervalTime();
-                    if (finish < minFinish) {
-                        minFinish = finish;
-                        minIndex = i;
-                    }
-                }
-                Teller chosen = tellers.get(minIndex);
-                if (chosen.getCustomer() == null) {
-                    Customer customer = customerQueue.poll();
-                    chosen.freeToBusy(customer, currentTime);
-                    numServed++;
-                    int waitTime = currentTime - customer.getArrivalTime();
-                    updateCustomerWaitTime(customer.getCustomerID(), waitTime);
-                    log.append("  Customer #").append(customer.getCustomerID()).append(" gets teller #")
-                        .append(chosen.getTellerID()).append(" for ")
-                        .append(customer.getTransactionTime()).append(" unit(s).\n");
-                } else {
-                    break;
-                }
-            }
+        engine.setCancelCheck(cancelled);
+        engine.run();
+        log.flush();
+        // Collect utilization
+        for (Teller t : engine.getTellers()) {
+            double util = (t.getTotalBusyTime() + t.getTotalFreeTime()) > 0 ?
+                100.0 * t.getTotalBusyTime() / (t.getTotalBusyTime() + t.getTotalFreeTime()) : 0.0;
+            utilizations.add(util);
         }
+        return new SimulationResult("", utilizations);
     }
 
-    // Static method for JavaFX UI integration
-    public static SimulationResult runWithParams(int simTime, int maxTrans, int chance, int tellers, int queueLimit, String algorithm) {
-        StringBuilder log = new StringBuilder();
-        List<Double> utilizations = new ArrayList<>();
-        TellerFlowOptimizer sim = new TellerFlowOptimizer();
-        sim.simulationTime = simTime;
-        sim.maxTransactionTime = maxTrans;
-        sim.chancesOfArrival = chance;
-        sim.numTellers = tellers;
-        sim.customerQLimit = queueLimit;
-        sim.dataSource = 0; // Always use random for UI
-        sim.dataRandom = new Random();
-        sim.customerIDCounter = 0;
-        sim.numGoaway = 0;
-        sim.numServed = 0;
-        sim.totalWaitingTime = 0;
-        sim.maxWaitTime = 0;
-        sim.totalCustomerWaitTime = 0;
-        sim.totalTellerBusyTime = 0;
-        sim.totalTellerIdleTime = 0;
-        sim.customerWaitTimes = new ArrayList<>();
-        sim.tellerUtilization = new ArrayList<>();
-        sim.peakQueueLength = 0;
-        sim.totalQueueTime = 0;
-        sim.queueLengths = new ArrayList<>();
-        sim.simulationTellers = new ArrayList<>();
-        // Choose algorithm
+    // Choose algorithm by its name in the UI
+    static SchedulingPolicy createPolicy(String algorithm) {
         if (algorithm.contains("Greedy")) {
-            sim.doSimulationWithLog(log);
+            return new GreedyPolicy();
         } else if (algorithm.contains("Round Robin")) {
-            sim.doRoundRobinWithLog(log);
+            return new RoundRobinPolicy();
         } else {
-            sim.doLeastWorkLeftWithLog(log);
-        }
-        // Collect utilization
-        for (Teller t : sim.simulationTellers) {
-            double util = (t.getTotalBusyTime() + t.getTotalFreeTime()) > 0 ?
-                100.0 * t.getTotalBusyTime() / (t.getTotalBusyTime() + t.getTotalFreeTime()) : 0.0;
-            utilizations.add(util);
+            return new LeastWorkLeftPolicy();
         }
-        return new SimulationResult(log.toString(), utilizations);
     }
 
     // *** main method to run simulation ***
+    //
+    //      java simulator.TellerFlowOptimizer [OFF|SUMMARY|STEP|EVENT]
+    //
+    // The optional argument is the log level, EVENT by default.
 
     public static void main(String[] args)
     {
+        LogLevel level = args.length > 0 ? LogLevel.parse(args[0]) : LogLevel.EVENT;
+
         TellerFlowOptimizer runTellerFlowOptimizer = new TellerFlowOptimizer();
         runTellerFlowOptimizer.setupParameters();
+        if (args.length > 1) {
+            // record the customer data to a trace file and run on the recording
+            runTellerFlowOptimizer.recordTrace(new File(args[1]));
+        }
+        runTellerFlowOptimizer.log = level == LogLevel.OFF
+                ? SimulationLogSink.OFF : new AsyncLogSink(System.out, level);
         
         Scanner menuScanner = new Scanner(System.in);
         
@@ -837,32 +511,9 @@ class TellerFlowOptimizer
             runTellerFlowOptimizer.comparisonMode = true;
             System.out.println("\nRunning all algorithms for comparison...");
             
-            // Run Greedy
-            System.out.println("\n" + "=".repeat(50));
-            System.out.println("RUNNING GREEDY ALGORITHM");
-            System.out.println("=".repeat(50));
-            runTellerFlowOptimizer.runGreedy();
-            runTellerFlowOptimizer.printStatistics();
-            
-            // Reset counters for next run
-            runTellerFlowOptimizer.resetForNextRun();
-            
-            // Run Round Robin
-            System.out.println("\n" + "=".repeat(50));
-            System.out.println("RUNNING ROUND ROBIN ALGORITHM");
-            System.out.println("=".repeat(50));
-            runTellerFlowOptimizer.runRoundRobin();
-            runTellerFlowOptimizer.printStatistics();
-            
-            // Reset counters for next run
-            runTellerFlowOptimizer.resetForNextRun();
-            
-            // Run Least Work Left
-            System.out.println("\n" + "=".repeat(50));
-            System.out.println("RUNNING LEAST WORK LEFT ALGORITHM");
-            System.out.println("=".repeat(50));
-            runTellerFlowOptimizer.runLeastWorkLeft();
-            runTellerFlowOptimizer.printStatistics();
+            // Run Greedy, Round Robin and Least Work Left concurrently
+            runTellerFlowOptimizer.doComparison(Arrays.asList(
+                new GreedyPolicy(), new RoundRobinPolicy(), new LeastWorkLeftPolicy()));
             
             // Print comparison table
             runTellerFlowOptimizer.printComparisonTable();
@@ -879,20 +530,22 @@ class TellerFlowOptimizer
                 choice = menuScanner.nextInt();
             } while (choice < 1 || choice > 3);
             
+            SimulationRun run = null;
             switch (choice) {
                 case 1:
-                    runTellerFlowOptimizer.runGreedy();
+                    run = runTellerFlowOptimizer.doSimulation(new GreedyPolicy());
                     break;
                 case 2:
-                    runTellerFlowOptimizer.runRoundRobin();
+                    run = runTellerFlowOptimizer.doSimulation(new RoundRobinPolicy());
                     break;
                 case 3:
-                    runTellerFlowOptimizer.runLeastWorkLeft();
+                    run = runTellerFlowOptimizer.doSimulation(new LeastWorkLeftPolicy());
                     break;
             }
-            runTellerFlowOptimizer.printStatistics();
+            runTellerFlowOptimizer.printStatistics(run);
         }
         
+        runTellerFlowOptimizer.log.close();
         menuScanner.close();
     }
 
@@ -0,0 +1,125 @@
+package simulator;
+
+//--------------------------------------------------------------------------
+//
+// Dispatch state of the tellers of a run, as parallel primitive arrays.
+//
+// Policies used to find a free teller by walking the Teller objects and
+// asking each one for its customer, one pointer chase per teller. Here the
+// state the dispatch needs lives in flat arrays indexed by teller index:
+// start and end time of the current interval, and one bit per teller in a
+// bitset of busy tellers. Finding the next free teller tests 64 tellers per
+// word, and reading end times walks contiguous memory.
+//
+// The engine updates the pool on every assignment and completion; policies
+// only read it. The Teller objects still keep the per-teller statistics.
+//
+class TellerPool
+{
+    private final int size;
+    private final long[] startTimes;
+    private final long[] endTimes;
+    private final long[] busyBits;    // bit i set: teller i is busy
+    private int numBusy;
+
+    public TellerPool(int size)
+    {
+        this.size = size;
+        startTimes = new long[size];
+        endTimes = new long[size];
+        busyBits = new long[(size + 63) >>> 6];
+    }
+
+    // teller index starts a transaction of transactionTime at currentTime
+    public void setBusy(int index, long currentTime, int transactionTime)
+    {
+        startTimes[index] = currentTime;
+        endTimes[index] = currentTime + transactionTime;
+        busyBits[index >>> 6] |= 1L << index;
+        numBusy++;
+    }
+
+    // teller index finished its transaction
+    public void setFree(int index)
+    {
+        startTimes[index] = endTimes[index];
+        busyBits[index >>> 6] &= ~(1L << index);
+        numBusy--;
+    }
+
+    public boolean isBusy(int index)
+    {
+        return (busyBits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    // first free teller at or after fromIndex, wrapping around to 0; -1 if
+    // all tellers are busy
+    public int nextFree(int fromIndex)
+    {
+        if (numBusy == size) return -1;
+        int index = nextFreeUpTo(fromIndex, size);
+        return index >= 0 ? index : nextFreeUpTo(0, fromIndex);
+    }
+
+    // first free teller in [fromIndex, toIndex), or -1
+    private int nextFreeUpTo(int fromIndex, int toIndex)
+    {
+        if (fromIndex >= toIndex) return -1;
+        int word = fromIndex >>> 6;
+        long free = ~busyBits[word] & (-1L << fromIndex);
+        while (true) {
+            if (free != 0) {
+                int index = (word << 6) + Long.numberOfTrailingZeros(free);
+                return index < toIndex ? index : -1;
+            }
+            if (++word << 6 >= toIndex) return -1;
+            free = ~busyBits[word];
+        }
+    }
+
+    // accessor methods
+
+    public int size()
+    {
+        return size;
+    }
+
+    public int numBusy()
+    {
+        return numBusy;
+    }
+
+    public int numFree()
+    {
+        return size - numBusy;
+    }
+
+    public long getStartTime(int index)
+    {
+        return startTimes[index];
+    }
+
+    public long getEndBusyIntervalTime(int index)
+    {
+        return endTimes[index];
+    }
+
+    public static void main(String[] args)
+    {
+        // quick check
+        TellerPool pool = new TellerPool(130);
+        for (int i = 0; i < 130; i++) {
+            if (i != 5 && i != 70 && i != 129) pool.setBusy(i, 0, 10);
+        }
+        System.out.println("Free from 0   : " + pool.nextFree(0));
+        System.out.println("Free from 6   : " + pool.nextFree(6));
+        System.out.println("Free from 71  : " + pool.nextFree(71));
+        pool.setBusy(129, 3, 4);
+        System.out.println("Free from 71  : " + pool.nextFree(71) + " (wraps)");
+        pool.setBusy(5, 3, 4);
+        pool.setBusy(70, 3, 4);
+        System.out.println("All busy      : " + pool.nextFree(0));
+        pool.setFree(64);
+        System.out.println("Free from 100 : " + pool.nextFree(100) + ", ends " + pool.getEndBusyIntervalTime(64));
+    }
+}
@@ -1,7 +1,10 @@
 package simulator;
 
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Application;
 import javafx.application.Platform;
+import javafx.collections.ObservableList;
 import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
@@ -9,17 +12,40 @@ import javafx.scene.chart.*;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import javafx.scene.text.Text;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 public class TellerSimulatorApp extends Application {
 
     private ComboBox<String> algoCombo;
-    private TextField simTimeField, maxTransField, chanceField, tellersField, queueLimitField;
+    private TextField simTimeField, maxTransField, chanceField, tellersField, queueLimitField, seedField;
     private TextArea logArea;
     private BarChart<String, Number> utilizationChart;
-    private Button startBtn;
+    private Button startBtn, cancelBtn;
+    private CheckBox saveLogBox;
+    private ProgressBar progressBar;
+    private LineChart<Number, Number> progressChart;
+    private XYChart.Series<Number, Number> queueSeries, queueMaxSeries, busySeries, waitSeries;
+    private TimeSeriesObserver timeSeries;   // of the current or last run
+    private TextField zoomFromField, zoomToField;
+    private Button zoomBtn;
+    private Task<SimulationResult> runningTask;
+    private volatile boolean cancelRequested;   // polled by the engine of the running task
+
+    // live progress: updates per second and points kept per chart line
+    private static final int PROGRESS_UPDATES_PER_SECOND = 30;
+    private static final int MAX_CHART_POINTS = 600;
+
+    // the log area shows at most this many characters, the newest ones
+    private static final int LOG_AREA_CHARS = 200_000;
     
     // AI Recommendation UI components
     private TextArea scenarioTextArea;
@@ -43,6 +69,8 @@ public class TellerSimulatorApp extends Application {
         chanceField = new TextField("50");
         tellersField = new TextField("3");
         queueLimitField = new TextField("10");
+        seedField = new TextField();
+        seedField.setPromptText("random");
 
         // AI Recommendation section
         scenarioTextArea = new TextArea();
@@ -75,8 +103,17 @@ public class TellerSimulatorApp extends Application {
         inputGrid.add(new Label("Queue Limit:"), 0, 5);
         inputGrid.add(queueLimitField, 1, 5);
 
+        inputGrid.add(new Label("Seed (optional):"), 0, 6);
+        inputGrid.add(seedField, 1, 6);
+
+        saveLogBox = new CheckBox("Save full log (gzip)");
+        inputGrid.add(saveLogBox, 1, 7);
+
         startBtn = new Button("Start Simulation");
-        inputGrid.add(startBtn, 1, 6);
+        cancelBtn = new Button("Cancel");
+        cancelBtn.setDisable(true);
+        progressBar = new ProgressBar(0);
+        inputGrid.add(new HBox(10, startBtn, cancelBtn, progressBar), 1, 8);
 
         // AI Recommendation section
         VBox aiSection = new VBox(10);
@@ -107,13 +144,60 @@ public class TellerSimulatorApp extends Application {
         utilizationChart = new BarChart<>(xAxis, yAxis);
         utilizationChart.setTitle("Teller Utilization");
 
-        VBox root = new VBox(10, inputGrid, aiSection, new Label("Simulation Log:"), logArea, utilizationChart);
+        // LineChart for live progress
+        NumberAxis timeAxis = new NumberAxis();
+        timeAxis.setLabel("Time");
+        timeAxis.setForceZeroInRange(false);
+        progressChart = new LineChart<>(timeAxis, new NumberAxis());
+        progressChart.setTitle("Live Progress");
+        progressChart.setAnimated(false);
+        progressChart.setCreateSymbols(false);
+        queueSeries = new XYChart.Series<>();
+        queueSeries.setName("Queue length");
+        queueMaxSeries = new XYChart.Series<>();
+        queueMaxSeries.setName("Max queue");
+        busySeries = new XYChart.Series<>();
+        busySeries.setName("Busy tellers");
+        waitSeries = new XYChart.Series<>();
+        waitSeries.setName("Avg wait");
+        progressChart.getData().add(queueSeries);
+        progressChart.getData().add(queueMaxSeries);
+        progressChart.getData().add(busySeries);
+        progressChart.getData().add(waitSeries);
+
+        // zoom into a time range of the run
+        zoomFromField = new TextField();
+        zoomFromField.setPromptText("from");
+        zoomFromField.setPrefColumnCount(8);
+        zoomToField = new TextField();
+        zoomToField.setPromptText("to");
+        zoomToField.setPrefColumnCount(8);
+        zoomBtn = new Button("Zoom");
+        zoomBtn.setDisable(true);
+        zoomBtn.setOnAction(e -> zoomChart());
+        VBox progressBox = new VBox(5, progressChart,
+                new HBox(5, new Label("Time range:"), zoomFromField, zoomToField, zoomBtn));
+        VBox.setVgrow(progressChart, Priority.ALWAYS);
+
+        HBox charts = new HBox(10, utilizationChart, progressBox);
+        HBox.setHgrow(utilizationChart, Priority.ALWAYS);
+        HBox.setHgrow(progressBox, Priority.ALWAYS);
+
+        VBox root = new VBox(10, inputGrid, aiSection, new Label("Simulation Log:"), logArea, charts);
         root.setPadding(new Insets(10));
 
         startBtn.setOnAction(e -> startSimulation());
+        cancelBtn.setOnAction(e -> {
+            // the engine stops at its next cancellation check and the task
+            // ends normally, after the log is closed; onSucceeded shows it
+            if (runningTask != null) {
+                cancelRequested = true;
+                cancelBtn.setDisable(true);
+            }
+        });
         askAIButton.setOnAction(e -> askAIForRecommendation());
 
-        Scene scene = new Scene(root, 800, 900);
+        Scene scene = new Scene(root, 1000, 900);
         primaryStage.setTitle("Teller Simulation with AI Recommender");
         primaryStage.setScene(scene);
         primaryStage.show();
@@ -195,19 +279,23 @@ public class TellerSimulatorApp extends Application {
 
     private void startSimulation() {
         // Input validation
-        int simTime, maxTrans, chance, tellers, queueLimit;
+        long simTime;
+        int maxTrans, chance, tellers, queueLimit;
+        long seed;
+        boolean seeded = !seedField.getText().isBlank();
         String algorithm = algoCombo.getValue();
         try {
-            simTime = Integer.parseInt(simTimeField.getText());
-            if (simTime < 1 || simTime > 10000) throw new NumberFormatException();
+            simTime = Long.parseLong(simTimeField.getText());
+            if (simTime < 1 || simTime > SimulationEngine.MAX_SIMULATION_TIME) throw new NumberFormatException();
             maxTrans = Integer.parseInt(maxTransField.getText());
             if (maxTrans < 1 || maxTrans > 500) throw new NumberFormatException();
             chance = Integer.parseInt(chanceField.getText());
             if (chance < 1 || chance > 100) throw new NumberFormatException();
             tellers = Integer.parseInt(tellersField.getText());
-            if (tellers < 1 || tellers > 10) throw new NumberFormatException();
+            if (tellers < 1 || tellers > SimulationEngine.MAX_TELLERS) throw new NumberFormatException();
             queueLimit = Integer.parseInt(queueLimitField.getText());
-            if (queueLimit < 1 || queueLimit > 50) throw new NumberFormatException();
+            if (queueLimit < 1) throw new NumberFormatException();
+            seed = seeded ? Long.parseLong(seedField.getText().trim()) : new Random().nextLong();
         } catch (NumberFormatException ex) {
             Alert alert = new Alert(Alert.AlertType.ERROR, "Please enter valid numbers in all fields (within allowed ranges).", ButtonType.OK);
             alert.showAndWait();
@@ -218,36 +306,191 @@ public class TellerSimulatorApp extends Application {
         startBtn.setDisable(true);
         logArea.setText("Simulation running...");
         utilizationChart.getData().clear();
+        queueSeries.getData().clear();
+        queueMaxSeries.getData().clear();
+        busySeries.getData().clear();
+        zoomBtn.setDisable(true);
+        waitSeries.getData().clear();
+        progressBar.setProgress(0);
+
+        // a seeded run that was done before is shown from the result cache
+        // (without the time series, which are not cached)
+        ResultCache.Key key = new ResultCache.Key(simTime, maxTrans, chance, tellers, queueLimit, algorithm, seed);
+        SimulationResult cached = seeded ? TellerFlowOptimizer.RESULT_CACHE.get(key) : null;
+        if (cached != null) {
+            logArea.setText(cached.getLog() + "\n[Cached result; cache: " + TellerFlowOptimizer.RESULT_CACHE + "]\n");
+            showUtilizations(cached);
+            progressBar.setProgress(1);
+            startBtn.setDisable(false);
+            return;
+        }
+
+        // The log streams into the log area in chunks while the run goes on;
+        // only the last lines are kept in memory, and the whole log goes to a
+        // gzip file if asked for.
+        StreamingLogSink log;
+        try {
+            log = new StreamingLogSink(LogLevel.EVENT, TellerFlowOptimizer.UI_LOG_LINES,
+                    saveLogBox.isSelected() ? new File("simulation-" + System.currentTimeMillis() + ".log.gz") : null);
+        } catch (UncheckedIOException ex) {
+            new Alert(Alert.AlertType.ERROR, "Cannot create log file: " + ex.getMessage(), ButtonType.OK).showAndWait();
+            startBtn.setDisable(false);
+            return;
+        }
+        logArea.clear();
+
+        // Progress snapshots are coalesced by the observer; the pump takes the
+        // newest one and the new log chunks at a fixed rate on the FX thread,
+        // so a fast simulation never floods it with updates.
+        ProgressObserver progress = new ProgressObserver(simTime, PROGRESS_UPDATES_PER_SECOND);
+        timeSeries = new TimeSeriesObserver();
+        CompositeObserver observers = new CompositeObserver();
+        observers.add(progress);
+        observers.add(timeSeries);
+        Timeline pump = new Timeline(new KeyFrame(Duration.millis(1000.0 / PROGRESS_UPDATES_PER_SECOND), e -> {
+            showProgress(progress.poll());
+            log.drainChunks(this::appendLog);
+        }));
+        pump.setCycleCount(Timeline.INDEFINITE);
+        pump.play();
 
+        cancelRequested = false;
         Task<SimulationResult> task = new Task<>() {
             @Override
             protected SimulationResult call() {
-                return TellerFlowOptimizer.runWithParams(
-                    simTime, maxTrans, chance, tellers, queueLimit, algorithm
-                );
+                try {
+                    return TellerFlowOptimizer.runWithParams(
+                        simTime, maxTrans, chance, tellers, queueLimit, algorithm, seed, log, observers,
+                        () -> cancelRequested
+                    );
+                } finally {
+                    log.close();
+                }
             }
         };
+        runningTask = task;
+        cancelBtn.setDisable(false);
 
+        // a cancelled run also ends here: call() has returned, so the log
+        // is closed and the worker is done before Start is enabled again
         task.setOnSucceeded(e -> {
+            pump.stop();
+            showProgress(progress.poll());
+            if (cancelRequested) {
+                showLogTail(log, "Simulation cancelled.");
+                runFinished();
+                return;
+            }
+            showLogTail(log, null);
             SimulationResult result = task.getValue();
-            logArea.setText(result.getLog());
-            utilizationChart.getData().clear();
-            XYChart.Series<String, Number> series = new XYChart.Series<>();
-            for (int i = 0; i < result.getTellerUtilizations().size(); i++) {
-                series.getData().add(new XYChart.Data<>("Teller " + (i+1), result.getTellerUtilizations().get(i)));
+            if (seeded) {
+                TellerFlowOptimizer.RESULT_CACHE.put(key,
+                        new SimulationResult(log.getTail(), result.getTellerUtilizations()));
             }
-            utilizationChart.getData().add(series);
-            startBtn.setDisable(false);
+            showUtilizations(result);
+            runFinished();
         });
 
         task.setOnFailed(e -> {
+            pump.stop();
             logArea.setText("Simulation failed: " + task.getException().getMessage());
-            startBtn.setDisable(false);
+            runFinished();
         });
 
         new Thread(task).start();
     }
 
+    private void showUtilizations(SimulationResult result) {
+        utilizationChart.getData().clear();
+        XYChart.Series<String, Number> series = new XYChart.Series<>();
+        for (int i = 0; i < result.getTellerUtilizations().size(); i++) {
+            series.getData().add(new XYChart.Data<>("Teller " + (i+1), result.getTellerUtilizations().get(i)));
+        }
+        utilizationChart.getData().add(series);
+    }
+
+    private void runFinished() {
+        zoomFromField.setText("0");
+        zoomToField.setText(Long.toString(timeSeries.getQueueLength().getEndTime()));
+        zoomBtn.setDisable(false);
+        runningTask = null;
+        cancelBtn.setDisable(true);
+        startBtn.setDisable(false);
+    }
+
+    private void showProgress(ProgressSnapshot snapshot) {
+        if (snapshot == null) return;
+        progressBar.setProgress(snapshot.getProgress());
+        addPoint(waitSeries, snapshot.getCurrentTime(), snapshot.getAverageWaitTime());
+        showTimeSeries(0, snapshot.getCurrentTime() + 1);
+    }
+
+    private void showTimeSeries(long from, long to) {
+        // queue and busy tellers from the store: one query per line, whatever the zoom
+        List<TimeSeriesStore.Bucket> queue = timeSeries.getQueueLength().query(from, to, MAX_CHART_POINTS);
+        List<TimeSeriesStore.Bucket> busy = timeSeries.getBusyTellers().query(from, to, MAX_CHART_POINTS);
+        List<XYChart.Data<Number, Number>> avg = new ArrayList<>(), max = new ArrayList<>(), busyAvg = new ArrayList<>();
+        for (TimeSeriesStore.Bucket b : queue) {
+            avg.add(new XYChart.Data<>(b.getStart(), b.getAvg()));
+            max.add(new XYChart.Data<>(b.getStart(), b.getMax()));
+        }
+        for (TimeSeriesStore.Bucket b : busy) {
+            busyAvg.add(new XYChart.Data<>(b.getStart(), b.getAvg()));
+        }
+        queueSeries.getData().setAll(avg);
+        queueMaxSeries.getData().setAll(max);
+        busySeries.getData().setAll(busyAvg);
+    }
+
+    private void zoomChart() {
+        try {
+            long from = Long.parseLong(zoomFromField.getText().trim());
+            long to = Long.parseLong(zoomToField.getText().trim());
+            if (from < 0 || to <= from) throw new NumberFormatException();
+            showTimeSeries(from, to);
+        } catch (NumberFormatException ex) {
+            new Alert(Alert.AlertType.ERROR, "Please enter a time range with 0 <= from < to.", ButtonType.OK).showAndWait();
+        }
+    }
+
+    private void addPoint(XYChart.Series<Number, Number> series, long time, double value) {
+        // running average wait has no store: when the line is full, drop every second point
+        ObservableList<XYChart.Data<Number, Number>> points = series.getData();
+        if (points.size() >= MAX_CHART_POINTS) {
+            List<XYChart.Data<Number, Number>> kept = new ArrayList<>();
+            for (int i = 0; i < points.size(); i += 2) kept.add(points.get(i));
+            points.setAll(kept);
+        }
+        points.add(new XYChart.Data<>(time, value));
+    }
+
+    private void showLogTail(StreamingLogSink log, String note) {
+        StringBuilder text = new StringBuilder();
+        if (log.getLineCount() > TellerFlowOptimizer.UI_LOG_LINES) {
+            text.append("... last ").append(TellerFlowOptimizer.UI_LOG_LINES).append(" of ")
+                .append(log.getLineCount()).append(" lines ...\n");
+        }
+        text.append(log.getTail());
+        if (note != null) {
+            text.append("\n").append(note).append("\n");
+        }
+        if (log.getSpillFile() != null) {
+            text.append("\nFull log saved to ").append(log.getSpillFile().getAbsolutePath()).append("\n");
+        }
+        logArea.setText(text.toString());
+        logArea.positionCaret(logArea.getLength());
+    }
+
+    private void appendLog(String chunk) {
+        // keep the log area bounded: drop the oldest whole lines
+        logArea.appendText(chunk);
+        int excess = logArea.getLength() - LOG_AREA_CHARS;
+        if (excess > 0) {
+            int cut = logArea.getText().indexOf('\n', excess);
+            logArea.deleteText(0, cut < 0 ? logArea.getLength() : cut + 1);
+        }
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -0,0 +1,99 @@
+package simulator;
+
+// Logs the simulation in the format shown in the JavaFX UI: one line per
+// time step at LogLevel.STEP, the events at LogLevel.EVENT. Attach it only
+// when the sink has STEP enabled. Time units without an event, which the
+// engine skips, are filled in from timeAdvanced like in ConsoleLogObserver.
+class TextLogObserver implements SimulationObserver
+{
+    private final SimulationLogSink log;
+    private final int customerQLimit;
+    private final boolean logEvents;
+
+    // next time unit to log, and the queue of the quiet stretch before it
+    private long nextTime;
+    private int quietWaiting;
+
+    public TextLogObserver(SimulationLogSink log, int customerQLimit)
+    {
+        this.log = log;
+        this.customerQLimit = customerQLimit;
+        this.logEvents = log.isEnabled(LogLevel.EVENT);
+    }
+
+    @Override
+    public void timeAdvanced(long fromTime, long toTime, int waitingCustomers, int busyTellers)
+    {
+        quietWaiting = waitingCustomers;
+    }
+
+    @Override
+    public void timeStep(long currentTime, int waitingCustomers, int busyTellers)
+    {
+        logQuietUntil(currentTime);
+        logStep(currentTime, waitingCustomers);
+        nextTime = currentTime + 1;
+    }
+
+    @Override
+    public void simulationEnded(long endTime)
+    {
+        logQuietUntil(endTime);
+    }
+
+    private void logQuietUntil(long endTime)
+    {
+        for (long time = nextTime; time < endTime; time++) {
+            logStep(time, quietWaiting);
+            noNewCustomer(time);
+        }
+        nextTime = Math.max(nextTime, endTime);
+    }
+
+    private void logStep(long currentTime, int waitingCustomers)
+    {
+        log.log(LogLevel.STEP, "Time: " + (currentTime + 1) + ", Queue: "
+                + waitingCustomers + "/" + customerQLimit);
+    }
+
+    @Override
+    public void noNewCustomer(long currentTime)
+    {
+        if (logEvents) log.log(LogLevel.EVENT, "  No new customer!");
+    }
+
+    @Override
+    public void customerArrives(long currentTime, long customerID, int transactionTime)
+    {
+        if (logEvents) log.log(LogLevel.EVENT, "  Customer #" + customerID
+                + " arrives with transaction time " + transactionTime);
+    }
+
+    @Override
+    public void customerGoesAway(long currentTime, long customerID)
+    {
+        if (logEvents) log.log(LogLevel.EVENT, "  Customer queue full. Customer #" + customerID + " leaves...");
+    }
+
+    @Override
+    public void customerWaits(long currentTime, long customerID)
+    {
+        if (logEvents) log.log(LogLevel.EVENT, "  Customer #" + customerID + " waits in the customer queue.");
+    }
+
+    @Override
+    public void customerDone(long currentTime, long customerID, int tellerID)
+    {
+        if (logEvents) {
+            log.log(LogLevel.EVENT, "  Customer #" + customerID + " is done.");
+            log.log(LogLevel.EVENT, "  Teller #" + tellerID + " is free.");
+        }
+    }
+
+    @Override
+    public void customerServed(long currentTime, long customerID, int tellerID, int transactionTime, long waitTime)
+    {
+        if (logEvents) log.log(LogLevel.EVENT, "  Customer #" + customerID + " gets teller #"
+                + tellerID + " for " + transactionTime + " unit(s).");
+    }
+}
@@ -0,0 +1,26 @@
+package simulator;
+
+// Records queue length and busy tellers over a run into TimeSeriesStores,
+// for charts and reports that look at the run by time range.
+class TimeSeriesObserver implements SimulationObserver
+{
+    private final TimeSeriesStore queueLength = new TimeSeriesStore();
+    private final TimeSeriesStore busyTellers = new TimeSeriesStore();
+
+    @Override
+    public void timeAdvanced(long fromTime, long toTime, int waitingCustomers, int busyTellers)
+    {
+        queueLength.add(fromTime, toTime, waitingCustomers);
+        this.busyTellers.add(fromTime, toTime, busyTellers);
+    }
+
+    public TimeSeriesStore getQueueLength()
+    {
+        return queueLength;
+    }
+
+    public TimeSeriesStore getBusyTellers()
+    {
+        return busyTellers;
+    }
+}
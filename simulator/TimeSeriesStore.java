@@ -0,0 +1,237 @@
+package simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//--------------------------------------------------------------------------
+//
+// Multi-resolution store of one time series, e.g. queue length over a run,
+// in min/max/avg buckets.
+//
+// The engine reports a value per stretch of time over which it is constant
+// (SimulationObserver.timeAdvanced), and each stretch goes into every level:
+//
+//      - ring levels of bucket width 1, 32, 1024, 32768 time units, each
+//        keeping the most recent CAPACITY buckets, for zooming into the
+//        recent past;
+//      - one whole-run level that starts at width 1 and doubles its width
+//        (merging pairs of buckets) whenever the run outgrows CAPACITY
+//        buckets, so it always covers the run from time 0.
+//
+// Memory is fixed (about 200 KB per series) however long the run is. A
+// query by time range reads the finest level that holds the whole range,
+// at most CAPACITY buckets, and merges neighbours down to maxPoints, so any
+// zoom level costs O(CAPACITY).
+// Averages are weighted by time. All methods are synchronized, so a viewer
+// may query while the simulation is still feeding the store.
+//
+class TimeSeriesStore
+{
+    private static final int CAPACITY = 1024;
+    private static final long[] RING_WIDTHS = { 1, 32, 1024, 32768 };
+
+    // one min/max/avg bucket of the series
+    static class Bucket
+    {
+        private final long start, end;
+        private final double min, max, avg;
+
+        Bucket(long start, long end, double min, double max, double avg)
+        {
+            this.start = start;
+            this.end = end;
+            this.min = min;
+            this.max = max;
+            this.avg = avg;
+        }
+
+        public long getStart()  { return start; }   // first time unit
+        public long getEnd()    { return end; }     // one past the last time unit
+        public double getMin()  { return min; }
+        public double getMax()  { return max; }
+        public double getAvg()  { return avg; }
+    }
+
+    // buckets of one width, stored by bucket number modulo their capacity
+    private static class Level
+    {
+        long width;
+        final double[] min = new double[CAPACITY];
+        final double[] max = new double[CAPACITY];
+        final double[] sum = new double[CAPACITY];   // value * duration
+        final long[] duration = new long[CAPACITY];
+        long first, last = -1;                        // bucket numbers held
+
+        Level(long width)
+        {
+            this.width = width;
+        }
+
+        void add(long from, long to, double value)
+        {
+            long firstBucket = from / width, lastBucket = (to - 1) / width;
+            // buckets before the last CAPACITY ones would be overwritten anyway
+            long b = Math.max(firstBucket, lastBucket - CAPACITY + 1);
+            for (; b <= lastBucket; b++) {
+                open(b);
+                long units = Math.min(to, (b + 1) * width) - Math.max(from, b * width);
+                int slot = (int) (b % CAPACITY);
+                if (duration[slot] == 0) {
+                    min[slot] = max[slot] = value;
+                } else {
+                    if (value < min[slot]) min[slot] = value;
+                    if (value > max[slot]) max[slot] = value;
+                }
+                sum[slot] += value * units;
+                duration[slot] += units;
+            }
+        }
+
+        void open(long bucket)
+        {
+            // clear the slots of buckets (last, bucket]
+            if (bucket <= last) return;
+            for (long b = Math.max(last + 1, bucket - CAPACITY + 1); b <= bucket; b++) {
+                duration[(int) (b % CAPACITY)] = 0;
+                sum[(int) (b % CAPACITY)] = 0;
+            }
+            last = bucket;
+            first = Math.max(first, bucket - CAPACITY + 1);
+        }
+
+        boolean holds(long from)
+        {
+            return last >= 0 && from >= first * width;
+        }
+
+        void collect(long from, long to, List<Bucket> out)
+        {
+            for (long b = Math.max(first, from / width); b <= Math.min(last, (to - 1) / width); b++) {
+                int slot = (int) (b % CAPACITY);
+                if (duration[slot] == 0) continue;
+                long start = b * width;
+                out.add(new Bucket(start, start + duration[slot], min[slot], max[slot], sum[slot] / duration[slot]));
+            }
+        }
+    }
+
+    private final Level[] rings;
+    private final Level whole;   // covers the run from 0, buckets 0..CAPACITY-1
+    private long endTime;        // one past the last time unit added
+
+    public TimeSeriesStore()
+    {
+        rings = new Level[RING_WIDTHS.length];
+        for (int i = 0; i < rings.length; i++) {
+            rings[i] = new Level(RING_WIDTHS[i]);
+        }
+        whole = new Level(1);
+    }
+
+    // the series has value over time units [from, to)
+    public synchronized void add(long from, long to, double value)
+    {
+        if (from < 0 || to <= from) return;
+        for (Level level : rings) {
+            level.add(from, to, value);
+        }
+        while ((to - 1) / whole.width >= CAPACITY) {
+            compactWhole();
+        }
+        whole.add(from, to, value);
+        endTime = Math.max(endTime, to);
+    }
+
+    private void compactWhole()
+    {
+        // double the bucket width: bucket i is made of old buckets 2i, 2i+1
+        for (int i = 0; i < CAPACITY / 2; i++) {
+            int a = 2 * i, b = 2 * i + 1;
+            long d = whole.duration[a] + whole.duration[b];
+            double lo, hi;
+            if (whole.duration[a] == 0) {
+                lo = whole.min[b];
+                hi = whole.max[b];
+            } else if (whole.duration[b] == 0) {
+                lo = whole.min[a];
+                hi = whole.max[a];
+            } else {
+                lo = Math.min(whole.min[a], whole.min[b]);
+                hi = Math.max(whole.max[a], whole.max[b]);
+            }
+            double s = whole.sum[a] + whole.sum[b];
+            whole.min[i] = lo;
+            whole.max[i] = hi;
+            whole.sum[i] = s;
+            whole.duration[i] = d;
+        }
+        for (int i = CAPACITY / 2; i < CAPACITY; i++) {
+            whole.duration[i] = 0;
+            whole.sum[i] = 0;
+        }
+        whole.width *= 2;
+        whole.last = whole.last < 0 ? -1 : whole.last / 2;
+    }
+
+    // buckets overlapping [from, to), at most maxPoints of them
+    public synchronized List<Bucket> query(long from, long to, int maxPoints)
+    {
+        List<Bucket> result = new ArrayList<>();
+        to = Math.min(to, endTime);
+        if (maxPoints < 1 || from >= to) return result;
+
+        // finest level holding the range; whole holds any range of the run
+        Level finest = whole;
+        for (Level level : rings) {
+            if (level.width < finest.width && level.holds(from)) finest = level;
+        }
+        finest.collect(from, to, result);
+        return merge(result, maxPoints);
+    }
+
+    private static List<Bucket> merge(List<Bucket> buckets, int maxPoints)
+    {
+        // combine runs of k neighbouring buckets to get at most maxPoints
+        if (buckets.size() <= maxPoints) return buckets;
+        int k = (buckets.size() + maxPoints - 1) / maxPoints;
+        List<Bucket> merged = new ArrayList<>();
+        for (int i = 0; i < buckets.size(); i += k) {
+            List<Bucket> group = buckets.subList(i, Math.min(i + k, buckets.size()));
+            double lo = Double.POSITIVE_INFINITY, hi = Double.NEGATIVE_INFINITY, s = 0;
+            long d = 0;
+            for (Bucket b : group) {
+                lo = Math.min(lo, b.getMin());
+                hi = Math.max(hi, b.getMax());
+                s += b.getAvg() * (b.getEnd() - b.getStart());
+                d += b.getEnd() - b.getStart();
+            }
+            merged.add(new Bucket(group.get(0).getStart(), group.get(group.size() - 1).getEnd(), lo, hi, s / d));
+        }
+        return merged;
+    }
+
+    public synchronized long getEndTime()
+    {
+        return endTime;
+    }
+
+    public static void main(String[] args)
+    {
+        // quick check: a square wave of period 200 over 10^7 time units
+        TimeSeriesStore store = new TimeSeriesStore();
+        long start = System.nanoTime();
+        for (long t = 0; t < 10_000_000; t += 100) {
+            store.add(t, t + 100, (t / 100) % 2 == 0 ? 1 : 5);
+        }
+        System.out.printf("fed in %.1f ms\n", (System.nanoTime() - start) / 1e6);
+        for (long[] range : new long[][] { { 0, 10_000_000 }, { 9_999_000, 10_000_000 }, { 5_000_000, 5_001_000 } }) {
+            start = System.nanoTime();
+            List<Bucket> buckets = store.query(range[0], range[1], 8);
+            System.out.printf("[%d, %d) in %.3f ms:\n", range[0], range[1], (System.nanoTime() - start) / 1e6);
+            for (Bucket b : buckets) {
+                System.out.printf("\t[%d, %d) min %.1f avg %.2f max %.1f\n",
+                        b.getStart(), b.getEnd(), b.getMin(), b.getAvg(), b.getMax());
+            }
+        }
+    }
+}
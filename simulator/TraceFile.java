@@ -0,0 +1,369 @@
+package simulator;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Random;
+
+//--------------------------------------------------------------------------
+//
+// Customer arrivals recorded in a compact binary file.
+//
+// A trace file is recorded once from any ArrivalSource (a data file or the
+// random generator) and can then be replayed into any scheduling policy and
+// any number of tellers, as often as needed: every replay sees exactly the
+// same customers, so a run can be reproduced exactly, and data files need
+// not be parsed again.
+//
+// Layout (big-endian):
+//
+//      header   int magic, int version, long size, long simulationTime,
+//               long indexOffset, int blockSize, int indexEntries
+//      records  per customer: varint(arrival time - previous arrival time),
+//               varint(zigzag(transaction time))
+//      index    per block of blockSize records: long baseTime, long offset
+//
+// A record takes 2 to 4 bytes for usual data; the customers of a batch are
+// records with an arrival time delta of 0. The baseTime of a block is the
+// arrival time of the record before it (0 for the first block), from which
+// the deltas of the block continue. A replay asked for arrivals from a much
+// later time jumps there through the index instead of decoding everything
+// in between.
+//
+// Replays read the file memory-mapped in windows of WINDOW_SIZE bytes, like
+// MappedIntReader, hold no file handle, and can run concurrently.
+//
+class TraceFile
+{
+    private static final int MAGIC = 0x54465452;         // "TFTR"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 40;
+    private static final int BLOCK_SIZE = 4096;
+    private static final long WINDOW_SIZE = 256L << 20;  // 256 MB
+
+    private final File file;
+    private final long size;
+    private final long simulationTime;
+    private final long indexOffset;
+    private final int blockSize;
+    private final long[] blockBaseTimes;
+    private final long[] blockOffsets;
+
+    // open a recorded trace file
+    public TraceFile(File file) throws IOException
+    {
+        this.file = file;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            if (file.length() < HEADER_SIZE || in.readInt() != MAGIC) {
+                throw new IOException("Not a customer trace file: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported trace file version " + version + ": " + file);
+            }
+            size = in.readLong();
+            simulationTime = in.readLong();
+            indexOffset = in.readLong();
+            blockSize = in.readInt();
+            int indexEntries = in.readInt();
+            if (size < 0 || blockSize <= 0 || indexEntries != blocksOf(size, blockSize)
+                    || indexOffset < HEADER_SIZE || indexOffset + 16L * indexEntries != file.length()) {
+                throw new IOException("Corrupt customer trace file: " + file);
+            }
+
+            blockBaseTimes = new long[indexEntries];
+            blockOffsets = new long[indexEntries];
+            in.skipNBytes(indexOffset - HEADER_SIZE);
+            for (int i = 0; i < indexEntries; i++) {
+                blockBaseTimes[i] = in.readLong();
+                blockOffsets[i] = in.readLong();
+            }
+        }
+    }
+
+    // true if file starts like a trace file
+    public static boolean isTraceFile(File file)
+    {
+        if (!file.isFile() || file.length() < HEADER_SIZE) return false;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == MAGIC;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    private static int blocksOf(long size, int blockSize)
+    {
+        long blocks = (size + blockSize - 1) / blockSize;
+        if (blocks > Integer.MAX_VALUE) throw new IllegalStateException("Customer trace too long: " + size);
+        return (int) blocks;
+    }
+
+    //----------------------------------------------------------------
+    //
+    // recording
+    //
+
+    // record all arrivals of source in [0, simulationTime) to file and open it
+    public static TraceFile record(ArrivalSource source, long simulationTime, File file) throws IOException
+    {
+        long size = 0;
+        long offset = HEADER_SIZE;
+        long previousTime = 0;
+        long[] baseTimes = new long[16];
+        long[] offsets = new long[16];
+        int blocks = 0;
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file), 64 * 1024))) {
+            out.write(new byte[HEADER_SIZE]);   // written once the index is known
+
+            long time = source.nextArrivalTime(0, simulationTime);
+            while (time < simulationTime) {
+                int batchSize = source.getBatchSize();
+                for (int i = 0; i < batchSize; i++) {
+                    if (size % BLOCK_SIZE == 0) {
+                        if (blocks == baseTimes.length) {
+                            baseTimes = Arrays.copyOf(baseTimes, blocks * 2);
+                            offsets = Arrays.copyOf(offsets, blocks * 2);
+                        }
+                        baseTimes[blocks] = previousTime;
+                        offsets[blocks] = offset;
+                        blocks++;
+                    }
+                    int transactionTime = source.getTransactionTime(i);
+                    offset += writeVarLong(out, time - previousTime);
+                    offset += writeVarLong(out, ((transactionTime << 1) ^ (transactionTime >> 31)) & 0xFFFFFFFFL);
+                    previousTime = time;
+                    size++;
+                }
+                time = source.nextArrivalTime(time + 1, simulationTime);
+            }
+
+            for (int i = 0; i < blocks; i++) {
+                out.writeLong(baseTimes[i]);
+                out.writeLong(offsets[i]);
+            }
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.writeInt(MAGIC);
+            raf.writeInt(VERSION);
+            raf.writeLong(size);
+            raf.writeLong(simulationTime);
+            raf.writeLong(offset);
+            raf.writeInt(BLOCK_SIZE);
+            raf.writeInt(blocks);
+        }
+        return new TraceFile(file);
+    }
+
+    // unsigned LEB128; returns the number of bytes written
+    private static int writeVarLong(OutputStream out, long value) throws IOException
+    {
+        int n = 1;
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+            n++;
+        }
+        out.write((int) value);
+        return n;
+    }
+
+    //----------------------------------------------------------------
+    //
+    // replay
+    //
+
+    // a new source that plays the recorded arrivals from the start
+    public ArrivalSource replay()
+    {
+        return new Replay();
+    }
+
+    private class Replay implements ArrivalSource
+    {
+        private MappedByteBuffer window;
+        private long windowEnd;          // file offset just past the window
+        private long next;               // number of the next record to decode
+        private long time;               // arrival time of the last decoded record
+
+        private boolean pending;         // a decoded record not yet returned
+        private long pendingTime;
+        private int pendingTransactionTime;
+
+        private int batchSize;
+        private int[] transactionTimes = new int[16];   // of the last batch
+
+        Replay()
+        {
+            windowEnd = HEADER_SIZE;
+            window = null;
+        }
+
+        @Override
+        public long nextArrivalTime(long fromTime, long endTime)
+        {
+            if (!pending || pendingTime < fromTime) skipTo(fromTime);
+            while (pending && pendingTime < fromTime) decode();
+            if (!pending || pendingTime >= endTime) return endTime;
+            long arrivalTime = pendingTime;
+            batchSize = 0;
+            do {
+                if (batchSize == transactionTimes.length) {
+                    transactionTimes = Arrays.copyOf(transactionTimes, 2 * batchSize);
+                }
+                transactionTimes[batchSize++] = pendingTransactionTime;
+                decode();
+            } while (pending && pendingTime == arrivalTime);
+            return arrivalTime;
+        }
+
+        @Override
+        public int getTransactionTime()
+        {
+            return transactionTimes[0];
+        }
+
+        @Override
+        public int getBatchSize()
+        {
+            return batchSize;
+        }
+
+        @Override
+        public int getTransactionTime(int i)
+        {
+            return transactionTimes[i];
+        }
+
+        // jump through the index to the last block that starts before fromTime
+        private void skipTo(long fromTime)
+        {
+            if (next == 0 && !pending) {
+                if (size == 0) return;
+                seek(0);
+            }
+            int lo = 0, hi = blockBaseTimes.length - 1;
+            while (lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if (blockBaseTimes[mid] < fromTime) lo = mid; else hi = mid - 1;
+            }
+            if ((long) lo * blockSize > next) seek(lo);
+        }
+
+        private void seek(int block)
+        {
+            next = (long) block * blockSize;
+            time = blockBaseTimes[block];
+            map(blockOffsets[block]);
+            decode();
+        }
+
+        // decode record number next into pending, if there is one
+        private void decode()
+        {
+            if (next == size) {
+                pending = false;
+                return;
+            }
+            time += readVarLong();
+            long zigzag = readVarLong();
+            pendingTime = time;
+            pendingTransactionTime = (int) (zigzag >>> 1) ^ -(int) (zigzag & 1);
+            pending = true;
+            next++;
+        }
+
+        private long readVarLong()
+        {
+            long value = 0;
+            int shift = 0;
+            int b;
+            do {
+                if (!window.hasRemaining()) map(windowEnd);
+                b = window.get();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        private void map(long start)
+        {
+            long length = Math.min(WINDOW_SIZE, indexOffset - start);
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+                 FileChannel channel = raf.getChannel()) {
+                window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            windowEnd = start + length;
+        }
+    }
+
+    // accessor methods
+
+    public File getFile()
+    {
+        return file;
+    }
+
+    public long size()
+    {
+        return size;
+    }
+
+    public long getSimulationTime()
+    {
+        return simulationTime;
+    }
+
+    // quick check: record random arrivals, replay them in full and from
+    // the middle, and compare with an in-memory trace
+    public static void main(String[] args) throws IOException
+    {
+        long simulationTime = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000;
+        File file = File.createTempFile("customers", ".trace");
+        file.deleteOnExit();
+
+        CustomerTrace expected = CustomerTrace.record(
+                new RandomArrivalSource(new Random(42), 60, 500), simulationTime);
+        long start = System.nanoTime();
+        TraceFile trace = record(expected.replay(), simulationTime, file);
+        System.out.printf("recorded %d customers in %d bytes (%.2f bytes each), %.1f ms\n",
+                trace.size(), file.length(), (double) file.length() / Math.max(1, trace.size()),
+                (System.nanoTime() - start) / 1e6);
+
+        start = System.nanoTime();
+        ArrivalSource replay = trace.replay();
+        int i = 0;
+        for (long time = replay.nextArrivalTime(0, simulationTime); time < simulationTime;
+                time = replay.nextArrivalTime(time + 1, simulationTime), i++) {
+            if (time != expected.getArrivalTime(i) || replay.getTransactionTime() != expected.getTransactionTime(i)) {
+                throw new AssertionError("replay differs at customer " + i);
+            }
+        }
+        if (i != expected.size()) throw new AssertionError("replayed " + i + " of " + expected.size());
+        System.out.printf("replayed %d customers, %.1f ms\n", i, (System.nanoTime() - start) / 1e6);
+
+        ArrivalSource fromMiddle = trace.replay();
+        int middle = expected.size() / 2;
+        long time = fromMiddle.nextArrivalTime(expected.getArrivalTime(middle), simulationTime);
+        if (time != expected.getArrivalTime(middle) || fromMiddle.getTransactionTime() != expected.getTransactionTime(middle)) {
+            throw new AssertionError("seek to the middle failed");
+        }
+        System.out.println("seek to customer " + middle + " OK");
+    }
+}